@@ -0,0 +1,37 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingDtoShort;
+import ru.practicum.shareit.booking.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookingServiceBenchmark {
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    public String state;
+
+    @Param("20")
+    public int size;
+
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        bookingService = shareIt.getBean(BookingService.class);
+    }
+
+    @Benchmark
+    public List<BookingDtoShort> getUserBookings(ShareItState shareIt) {
+        return bookingService.getUserBookings(shareIt.randomUserId(), state, 0, size);
+    }
+
+    @Benchmark
+    public List<BookingDtoShort> getAllUserItemsBookings(ShareItState shareIt) {
+        return bookingService.getAllUserItemsBookings(shareIt.randomUserId(), state, 0, size);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkCreateBenchmark {
+
+    @Param("500")
+    public int rows;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private UserRepository userRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        userRepository = shareIt.getBean(UserRepository.class);
+        transactionTemplate = shareIt.getBean(TransactionTemplate.class);
+    }
+
+    @Benchmark
+    public List<User> createUsers() {
+        List<User> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long n = sequence.incrementAndGet();
+            users.add(User.builder()
+                    .name("Bulk" + n)
+                    .email("bulk" + n + "@bench.shareit.ru")
+                    .build());
+        }
+        return transactionTemplate.execute(status -> userRepository.saveAll(users));
+    }
+}
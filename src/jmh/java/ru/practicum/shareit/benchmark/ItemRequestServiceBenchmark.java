@@ -0,0 +1,29 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ItemRequestServiceBenchmark {
+
+    @Param("20")
+    public int size;
+
+    private ItemRequestService itemRequestService;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        itemRequestService = shareIt.getBean(ItemRequestService.class);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> getOtherUsersRequests(ShareItState shareIt) {
+        return itemRequestService.getOtherUsersRequests(shareIt.randomUserId(), 0, size);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemDtoWithBookingsAndComments;
+import ru.practicum.shareit.item.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ItemServiceBenchmark {
+
+    @Param({"drill", "cordless drill", "scr"})
+    public String text;
+
+    @Param("20")
+    public int size;
+
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp(ShareItState shareIt) {
+        itemService = shareIt.getBean(ItemService.class);
+    }
+
+    @Benchmark
+    public List<ItemDtoWithBookingsAndComments> getOwnerItems(ShareItState shareIt) {
+        return itemService.getOwnerItems(shareIt.randomUserId(), 0, size);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchAvailableItems(ShareItState shareIt) {
+        return itemService.searchAvailableItems(shareIt.randomUserId(), text, null, null, 0, size);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.seed.DataGenerator;
+import ru.practicum.shareit.seed.SeedProperties;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class ShareItState {
+
+    @Param("500")
+    public int users;
+
+    @Param("4")
+    public int itemsPerUser;
+
+    @Param("8")
+    public int bookingsPerItem;
+
+    @Param("2")
+    public int requestsPerUser;
+
+    @Param("42")
+    public long seed;
+
+    @Param("database")
+    public String searchEngine;
+
+    @Param("50")
+    public int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--shareit.search.engine=" + searchEngine,
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "--logging.level.root=WARN",
+                        "--shareit.slow-query.enabled=false");
+        SeedProperties properties = new SeedProperties();
+        properties.setSeed(seed);
+        properties.setUsers(users);
+        properties.setItems(users * itemsPerUser);
+        properties.setBookings(users * itemsPerUser * bookingsPerItem);
+        properties.setRequests(users * requestsPerUser);
+        context.getBean(DataGenerator.class).generate(properties);
+        context.getBean(ItemService.class).rebuildSearchIndex();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+public interface ApprovedBookingEntry {
+
+    long getId();
+
+    long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.archive")
+public class BookingArchiveProperties {
+
+    private boolean enabled;
+
+    private Duration horizon = Duration.ofDays(365);
+
+    private Duration interval = Duration.ofHours(1);
+
+    private int batchSize = 1000;
+}
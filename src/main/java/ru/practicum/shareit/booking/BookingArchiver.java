@@ -0,0 +1,56 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.archive.enabled", havingValue = "true")
+@EnableConfigurationProperties(BookingArchiveProperties.class)
+@Slf4j
+public class BookingArchiver {
+
+    private final BookingRepository bookingRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BookingArchiveProperties properties;
+
+    public BookingArchiver(BookingRepository bookingRepository, TransactionTemplate transactionTemplate,
+                           BookingArchiveProperties properties) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.archive.interval:PT1H}",
+            fixedDelayString = "${shareit.archive.interval:PT1H}")
+    public void archive() {
+        LocalDateTime horizon = LocalDateTime.now().minus(properties.getHorizon());
+        long archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveBatch(horizon));
+            archived += moved;
+        } while (moved == properties.getBatchSize());
+        if (archived > 0) {
+            log.info("Перенесли в архив {} бронирований, закончившихся до {}", archived, horizon);
+        }
+    }
+
+    private int moveBatch(LocalDateTime horizon) {
+        List<Long> ids = bookingRepository.findArchivableIds(horizon, LocalDateTime.now(),
+                properties.getBatchSize());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        bookingRepository.copyToArchive(ids);
+        return bookingRepository.deleteArchived(ids);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+
+@Getter
+public class BookingBatchResult {
+
+    private final int index;
+
+    private final BookingDto booking;
+
+    private final String error;
+
+    private BookingBatchResult(int index, BookingDto booking, String error) {
+        this.index = index;
+        this.booking = booking;
+        this.error = error;
+    }
+
+    public static BookingBatchResult created(int index, BookingDto booking) {
+        return new BookingBatchResult(index, booking, null);
+    }
+
+    public static BookingBatchResult failed(int index, String error) {
+        return new BookingBatchResult(index, null, error);
+    }
+}
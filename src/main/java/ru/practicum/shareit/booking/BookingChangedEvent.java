@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class BookingChangedEvent {
+
+    private final long bookingId;
+
+    private final long itemId;
+
+    private final long ownerId;
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    private final BookingStatus previousStatus;
+
+    private final BookingStatus status;
+
+    public BookingChangedEvent(long bookingId, long itemId, long ownerId, LocalDateTime start, LocalDateTime end,
+                               BookingStatus previousStatus, BookingStatus status) {
+        this.bookingId = bookingId;
+        this.itemId = itemId;
+        this.ownerId = ownerId;
+        this.start = start;
+        this.end = end;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+
+    public static BookingChangedEvent of(Booking booking) {
+        return of(booking, null);
+    }
+
+    public static BookingChangedEvent of(Booking booking, BookingStatus previousStatus) {
+        return new BookingChangedEvent(booking.getId(), booking.getItem().getId(),
+                booking.getItem().getOwner().getId(), booking.getStart(), booking.getEnd(), previousStatus,
+                booking.getStatus());
+    }
+}
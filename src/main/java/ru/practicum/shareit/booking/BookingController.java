@@ -1,22 +1,42 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.ValidationException;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 
 @RestController
 @RequestMapping(path = "/bookings")
 @Validated
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final BookingStatusHub bookingStatusHub;
 
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper,
+                             BookingStatusHub bookingStatusHub) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
+        this.bookingStatusHub = bookingStatusHub;
     }
 
     @PostMapping
@@ -25,6 +45,21 @@ public class BookingController {
         return bookingCreated;
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResult> createBookings(@RequestHeader("X-Sharer-User-id") long userId,
+                                                   @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                   List<@Valid BookingDtoToCreate> bookingDtos) {
+        return bookingService.createBookings(userId, bookingDtos);
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingDecisionResult> approveBookings(@RequestHeader("X-Sharer-User-id") long userId,
+                                                       @RequestParam boolean approved,
+                                                       @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                       List<Long> bookingIds) {
+        return bookingService.approveBookings(userId, bookingIds, approved);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approveBooking(@RequestHeader("X-Sharer-User-id") long userId, @PathVariable long bookingId,
                                      @RequestParam boolean approved) {
@@ -32,27 +67,90 @@ public class BookingController {
         return bookingApproved;
     }
 
+    @GetMapping("/export")
+    public void exportBookings(@RequestHeader("X-Sharer-User-id") long userId,
+                               @RequestParam(value = "owner", defaultValue = "false") boolean owner,
+                               @RequestParam(value = "format", defaultValue = "NDJSON") String format,
+                               HttpServletResponse response) throws IOException {
+        BookingExportFormat exportFormat;
+        try {
+            exportFormat = BookingExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown export format: " + format);
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        BookingExportWriter writer = new BookingExportWriter(exportFormat, response.getOutputStream(), objectMapper);
+        try {
+            bookingService.exportBookings(userId, owner, writer);
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
+        writer.close();
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader("X-Sharer-User-id") long userId, @PathVariable long bookingId) {
         BookingDto bookingDto = bookingService.getBooking(userId, bookingId);
         return bookingDto;
     }
 
+    @GetMapping(path = "/{bookingId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingStatus(@RequestHeader("X-Sharer-User-id") long userId,
+                                          @PathVariable long bookingId, HttpServletResponse response) {
+        try {
+            return bookingStatusHub.subscribe(bookingId,
+                    () -> bookingService.getBooking(userId, bookingId).getStatus());
+        } catch (RuntimeException e) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            throw e;
+        }
+    }
+
     @GetMapping
-    public List<BookingDto> getUserBookings(@RequestHeader("X-Sharer-User-id") long userId,
+    public ResponseEntity<List<BookingDtoShort>> getUserBookings(@RequestHeader("X-Sharer-User-id") long userId,
                                             @Nullable @RequestParam(value = "state", defaultValue = "ALL") String state,
                                             @RequestParam (value = "from", defaultValue = "0") @Min(0)  Integer from,
-                                            @RequestParam (value = "size", defaultValue = "10") @Min(1)  Integer size) {
-        List<BookingDto> result = bookingService.getUserBookings(userId, state, from, size);
-        return result;
+                                            @RequestParam (value = "size", defaultValue = "10") @Min(1)  Integer size,
+                                            @RequestParam (value = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            return toResponse(bookingService.getUserBookingsByCursor(userId, state, cursor, size));
+        }
+        return toResponse(bookingService.getUserBookings(userId, state, from, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllUserItemsBookings(@RequestHeader("X-Sharer-User-id") long userId,
+    public ResponseEntity<List<BookingDtoShort>> getAllUserItemsBookings(@RequestHeader("X-Sharer-User-id") long userId,
                                                     @Nullable @RequestParam(value = "state", defaultValue = "ALL") String state,
                                                     @RequestParam (value = "from", defaultValue = "0") @Min(0)  Integer from,
-                                                    @RequestParam (value = "size", defaultValue = "10") @Min(1)  Integer size) {
-        List<BookingDto> result = bookingService.getAllUserItemsBookings(userId, state, from, size);
-        return result;
+                                                    @RequestParam (value = "size", defaultValue = "10") @Min(1)  Integer size,
+                                                    @RequestParam (value = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            return toResponse(bookingService.getAllUserItemsBookingsByCursor(userId, state, cursor, size));
+        }
+        return toResponse(bookingService.getAllUserItemsBookings(userId, state, from, size), size);
+    }
+
+    @GetMapping("/owner/summary")
+    public Map<State, Long> getOwnerSummary(@RequestHeader("X-Sharer-User-id") long userId) {
+        return bookingService.getOwnerSummary(userId);
+    }
+
+    private ResponseEntity<List<BookingDtoShort>> toResponse(List<BookingDtoShort> bookings, int size) {
+        String nextCursor = bookings.size() == size
+                ? BookingCursor.after(bookings.get(bookings.size() - 1)).encode()
+                : null;
+        return toResponse(new BookingSlice(bookings, nextCursor));
+    }
+
+    private ResponseEntity<List<BookingDtoShort>> toResponse(BookingSlice slice) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, slice.getNextCursor());
+        }
+        return response.body(slice.getBookings());
     }
 }
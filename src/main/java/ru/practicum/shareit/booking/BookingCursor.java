@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+@Getter
+public class BookingCursor {
+
+    public static final BookingCursor FIRST = new BookingCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private final LocalDateTime start;
+
+    private final long id;
+
+    public BookingCursor(LocalDateTime start, long id) {
+        this.start = start;
+        this.id = id;
+    }
+
+    public static BookingCursor after(BookingDtoShort booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public static BookingCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new BookingCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((start + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
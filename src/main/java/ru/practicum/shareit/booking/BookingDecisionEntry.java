@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking;
+
+public interface BookingDecisionEntry extends BookingOccupancyEntry {
+
+    long getOwnerId();
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+
+@Getter
+public class BookingDecisionResult {
+
+    private final long bookingId;
+
+    private final BookingDecisionOutcome outcome;
+
+    public BookingDecisionResult(long bookingId, BookingDecisionOutcome outcome) {
+        this.bookingId = bookingId;
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class BookingDtoShort {
+
+    private final long id;
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    private final BookingStatus status;
+
+    private final ShortItem item;
+
+    private final ShortBooker booker;
+
+    public BookingDtoShort(long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                           long itemId, String itemName, long bookerId) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.status = status;
+        this.item = new ShortItem(itemId, itemName);
+        this.booker = new ShortBooker(bookerId);
+    }
+
+    @Getter
+    public static class ShortItem {
+
+        private final long id;
+
+        private final String name;
+
+        ShortItem(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @Getter
+    public static class ShortBooker {
+
+        private final long id;
+
+        ShortBooker(long id) {
+            this.id = id;
+        }
+    }
+}
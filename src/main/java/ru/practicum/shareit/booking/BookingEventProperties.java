@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking-events")
+public class BookingEventProperties {
+
+    private Duration timeout = Duration.ofMinutes(30);
+
+    private int bufferSize = 16;
+
+    private int senderThreads = 2;
+}
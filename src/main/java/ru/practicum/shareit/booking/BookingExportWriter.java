@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+public class BookingExportWriter implements Consumer<BookingDtoShort>, Closeable {
+
+    static final String CSV_HEADER = "id,start,end,status,item_id,item_name,booker_id";
+
+    private final BookingExportFormat format;
+
+    private final Writer writer;
+
+    private final ObjectWriter jsonWriter;
+
+    public BookingExportWriter(BookingExportFormat format, OutputStream out, ObjectMapper objectMapper) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.jsonWriter = objectMapper.writerFor(BookingDtoShort.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        if (format == BookingExportFormat.CSV) {
+            write(CSV_HEADER);
+        }
+    }
+
+    @Override
+    public void accept(BookingDtoShort booking) {
+        if (format == BookingExportFormat.CSV) {
+            write(booking.getId() + "," + booking.getStart() + "," + booking.getEnd() + "," + booking.getStatus()
+                    + "," + booking.getItem().getId() + "," + csv(booking.getItem().getName())
+                    + "," + booking.getBooker().getId());
+        } else {
+            try {
+                jsonWriter.writeValue(writer, booking);
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void write(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Immutable
+@Subselect("select id, start_date, end_date, item_id, booker_id, status from bookings " +
+        "union all " +
+        "select id, start_date, end_date, item_id, booker_id, status from bookings_archive")
+@Synchronize({"bookings", "bookings_archive"})
+@Getter
+public class BookingHistory {
+
+    @Id
+    private long id;
+
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    @ManyToOne
+    @JoinColumn(name = "item_id",
+            referencedColumnName = "id")
+    private Item item;
+
+    @ManyToOne
+    @JoinColumn(name = "booker_id",
+            referencedColumnName = "id")
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    protected BookingHistory() {
+    }
+}
@@ -18,6 +18,17 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingDto modelToDto(BookingHistory booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(booking.getItem())
+                .booker(booking.getBooker())
+                .status(booking.getStatus())
+                .build();
+    }
+
     public static Booking dtoToCreateToModel(BookingDtoToCreate bookingDto) {
         return Booking.builder()
                 .end(bookingDto.getEnd())
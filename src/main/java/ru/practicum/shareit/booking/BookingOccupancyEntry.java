@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking;
+
+public interface BookingOccupancyEntry extends ApprovedBookingEntry {
+
+    BookingStatus getStatus();
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+public interface BookingOverlapGuard {
+
+    boolean isFree(long itemId, LocalDateTime start, LocalDateTime end);
+
+    void reserve(Booking booking);
+
+    void release(Booking booking);
+}
@@ -1,103 +1,328 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    String EXPORT_FETCH_SIZE = "500";
+
+    String SELECT_SHORT = "select new ru.practicum.shareit.booking.BookingDtoShort(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+            "from Booking as b " +
+            "join b.item as i ";
+
+    String SELECT_HISTORY_SHORT = "select new ru.practicum.shareit.booking.BookingDtoShort(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+            "from BookingHistory as b " +
+            "join b.item as i ";
+
+    @EntityGraph(attributePaths = {"booker"})
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(long itemId, BookingStatus status,
+                                                                              LocalDateTime dateTime);
+
+    @EntityGraph(attributePaths = {"booker"})
+    Optional<Booking> findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(long itemId, BookingStatus status,
+                                                                            LocalDateTime dateTime);
+
     @Query("select b from Booking as b " +
-            "join b.item as i " +
-            "where i.id = ?1 and " +
-            "b.status = 'APPROVED'")
-    List<Booking> findAllBookingsByItemId(long itemId);
+            "join fetch b.booker as u " +
+            "where b.item.id in ?1 " +
+            "and b.status = 'APPROVED' " +
+            "and b.start = (select max(lb.start) from Booking as lb " +
+            "where lb.item.id = b.item.id " +
+            "and lb.status = 'APPROVED' " +
+            "and lb.start < ?2)")
+    List<Booking> findLastBookingsByItemIdIn(Collection<Long> itemIds, LocalDateTime dateTime);
 
     @Query("select b from Booking as b " +
+            "join fetch b.booker as u " +
+            "where b.item.id in ?1 " +
+            "and b.status = 'APPROVED' " +
+            "and b.start = (select min(nb.start) from Booking as nb " +
+            "where nb.item.id = b.item.id " +
+            "and nb.status = 'APPROVED' " +
+            "and nb.start > ?2)")
+    List<Booking> findNextBookingsByItemIdIn(Collection<Long> itemIds, LocalDateTime dateTime);
+
+    @Query(value = "select exists(select 1 from bookings as b " +
+            "where b.item_id = :itemId " +
+            "and b.status = 'APPROVED' " +
+            "and tstzrange(b.start_date, b.end_date) && tstzrange(:start, :end))",
+            nativeQuery = true)
+    boolean existsApprovedOverlap(@Param("itemId") long itemId, @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as start, b.end as end " +
+            "from Booking as b " +
+            "where b.status = 'APPROVED' " +
+            "and b.end > ?1")
+    List<ApprovedBookingEntry> findAllApprovedEndingAfter(LocalDateTime dateTime);
+
+    @Query("select b.id as id, b.item.id as itemId, b.status as status, b.start as start, b.end as end " +
+            "from Booking as b " +
+            "where b.status in ('WAITING', 'APPROVED') " +
+            "and b.end > ?1")
+    List<BookingOccupancyEntry> findAllOccupyingEndingAfter(LocalDateTime dateTime);
+
+    @Query("select b.id as id, i.id as itemId, i.owner.id as ownerId, b.status as status, " +
+            "b.start as start, b.end as end " +
+            "from Booking as b " +
+            "join b.item as i " +
+            "where b.id in ?1")
+    List<BookingDecisionEntry> findDecisionEntriesByIdIn(Collection<Long> ids);
+
+    @Query("select b.id as id, i.id as itemId, i.owner.id as ownerId, b.status as status, " +
+            "b.start as start, b.end as end " +
+            "from Booking as b " +
+            "join b.item as i " +
+            "where b.end >= ?1")
+    List<BookingDecisionEntry> findAllOwnerEntriesEndingFrom(LocalDateTime dateTime);
+
+    @Query("select i.owner.id as ownerId, " +
+            "sum(case when b.status = 'WAITING' then 1 else 0 end) as waiting, " +
+            "sum(case when b.status = 'REJECTED' then 1 else 0 end) as rejected, " +
+            "sum(case when b.end < ?1 then 1 else 0 end) as past " +
+            "from BookingHistory as b " +
+            "join b.item as i " +
+            "group by i.owner.id")
+    List<OwnerBookingCounts> countAllByOwner(LocalDateTime dateTime);
+
+    @Query(value = "select b.id from bookings as b " +
+            "where b.end_date < :horizon " +
+            "and b.status <> 'WAITING' " +
+            "and (b.status <> 'APPROVED' or exists(select 1 from bookings as nb " +
+            "where nb.item_id = b.item_id " +
+            "and nb.status = 'APPROVED' " +
+            "and nb.start_date > b.start_date " +
+            "and nb.start_date < :now)) " +
+            "order by b.end_date " +
+            "limit :limit", nativeQuery = true)
+    List<Long> findArchivableIds(@Param("horizon") LocalDateTime horizon, @Param("now") LocalDateTime now,
+                                 @Param("limit") int limit);
+
+    @Query("select b from BookingHistory as b " +
+            "join fetch b.item as i " +
+            "join fetch i.owner " +
+            "join fetch b.booker " +
+            "where b.id = ?1")
+    Optional<BookingHistory> findHistoryById(long bookingId);
+
+    @Modifying
+    @Query(value = "insert into bookings_archive (id, start_date, end_date, item_id, booker_id, status) " +
+            "select b.id, b.start_date, b.end_date, b.item_id, b.booker_id, b.status from bookings as b " +
+            "where b.id in :ids", nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "delete from bookings where id in :ids", nativeQuery = true)
+    int deleteArchived(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking as b set b.status = :status " +
+            "where b.id in :ids " +
+            "and b.status = 'WAITING' " +
+            "and b.item.id in (select i.id from Item as i where i.owner.id = :ownerId)")
+    int updateWaitingStatusByOwner(@Param("ids") Collection<Long> ids, @Param("ownerId") long ownerId,
+                                   @Param("status") BookingStatus status);
+
+    @Query("select b from BookingHistory as b " +
             "join b.item as i " +
             "join b.booker as u " +
             "where i.id = ?1 " +
             "and u.id = ?2 " +
             "and b.end < ?3 ")
-    List<Booking> findAllByBookerIdAndItemIdAndEndBefore(long itemId, long bookerId,  LocalDateTime end);
+    List<BookingHistory> findAllByBookerIdAndItemIdAndEndBefore(long itemId, long bookerId,  LocalDateTime end);
 
-    Page<Booking> findAllByBookerIdOrderByStartDesc(long bookerId, Pageable pageable);
+    @Query(SELECT_HISTORY_SHORT +
+            "where b.booker.id = ?1 " +
+            "order by b.start desc")
+    Slice<BookingDtoShort> findAllByBookerIdOrderByStartDesc(long bookerId, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.booker as u  " +
+    @Query(SELECT_SHORT +
             "where b.booker.id = ?1  and ?2 " +
             "between b.start  and b.end  " +
             "order by b.start desc")
-    Page<Booking> findAllCurrentBookingsByUser(long id, LocalDateTime dateTim, Pageable pageable);
+    Slice<BookingDtoShort> findAllCurrentBookingsByUser(long id, LocalDateTime dateTim, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.booker as u  " +
+    @Query(SELECT_SHORT +
             "where b.booker.id = ?1  and b.start > ?2 " +
             "order by b.start desc")
-    Page<Booking> findAllFutureBookingsByUser(long userId, LocalDateTime dateTime, Pageable pageable);
+    Slice<BookingDtoShort> findAllFutureBookingsByUser(long userId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.booker as u  " +
+    @Query(SELECT_HISTORY_SHORT +
             "where b.booker.id = ?1  and b.end < ?2 " +
             "order by b.start desc")
-    Page<Booking> findAllPastBookingsByUser(long userId, LocalDateTime dateTime, Pageable pageable);
+    Slice<BookingDtoShort> findAllPastBookingsByUser(long userId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.booker as u  " +
+    @Query(SELECT_HISTORY_SHORT +
             "where b.booker.id = ?1  and b.status = 'REJECTED'" +
             "order by b.start desc")
-    Page<Booking> findAllRejectedBookingsByUser(long userId, Pageable pageable);
+    Slice<BookingDtoShort> findAllRejectedBookingsByUser(long userId, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.booker as u  " +
+    @Query(SELECT_SHORT +
             "where b.booker.id = ?1  and b.status = 'WAITING'" +
             "order by b.start desc")
-    Page<Booking> findAllWaitingBookingsByUser(long userId, Pageable pageable);
+    Slice<BookingDtoShort> findAllWaitingBookingsByUser(long userId, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.item as i " +
+    @Query(SELECT_HISTORY_SHORT +
             "where i.owner.id = ?1 " +
             "order by b.start desc")
-    Page<Booking> findAllItemsBookings(Long userId, Pageable pageable);
+    Slice<BookingDtoShort> findAllItemsBookings(Long userId, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.item as i " +
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(SELECT_HISTORY_SHORT +
+            "where b.booker.id = ?1 " +
+            "order by b.start desc, b.id desc")
+    Stream<BookingDtoShort> streamAllByBookerId(long bookerId);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(SELECT_HISTORY_SHORT +
+            "where i.owner.id = ?1 " +
+            "order by b.start desc, b.id desc")
+    Stream<BookingDtoShort> streamAllItemsBookings(long ownerId);
+
+    @Query(SELECT_SHORT +
             "where i.owner.id = ?1 " +
             "and ?2 between b.start  and b.end " +
             "order by b.start desc")
-    Page<Booking> findAllItemsCurrentBookings(Long userId, LocalDateTime dateTime, Pageable pageable);
+    Slice<BookingDtoShort> findAllItemsCurrentBookings(Long userId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.item as i " +
+    @Query(SELECT_HISTORY_SHORT +
             "where i.owner.id = ?1 " +
             "and b.end < ?2 " +
             "order by b.start desc")
-    Page<Booking> findAllItemsPastBookings(Long userId, LocalDateTime dateTime, Pageable pageable);
+    Slice<BookingDtoShort> findAllItemsPastBookings(Long userId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.item as i " +
+    @Query(SELECT_SHORT +
             "where i.owner.id = ?1 " +
             "and b.start > ?2 " +
             "order by b.start desc")
-    Page<Booking> findAllItemsFutureBookings(Long userId, LocalDateTime dateTime, Pageable pageable);
+    Slice<BookingDtoShort> findAllItemsFutureBookings(Long userId, LocalDateTime dateTime, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.item as i " +
+    @Query(SELECT_HISTORY_SHORT +
             "where i.owner.id = ?1 " +
             "and b.status = 'REJECTED' " +
             "order by b.start desc")
-    Page<Booking> findAllItemsRejectedBookings(Long userId, Pageable pageable);
+    Slice<BookingDtoShort> findAllItemsRejectedBookings(Long userId, Pageable pageable);
 
-    @Query("select b from Booking as b " +
-            "join b.item as i " +
+    @Query(SELECT_SHORT +
             "where i.owner.id = ?1 " +
             "and b.status = 'WAITING' " +
             "order by b.start desc")
-    Page<Booking> findAllItemsWaitingBookings(Long userId, Pageable pageable);
-}
+    Slice<BookingDtoShort> findAllItemsWaitingBookings(Long userId, Pageable pageable);
 
+    @Query(SELECT_HISTORY_SHORT +
+            "where b.booker.id = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllBookingsByUserBefore(long userId, LocalDateTime start, long id,
+                                                       Pageable pageable);
+
+    @Query(SELECT_SHORT +
+            "where b.booker.id = ?1 " +
+            "and ?2 between b.start and b.end " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllCurrentBookingsByUserBefore(long userId, LocalDateTime dateTime,
+                                                              LocalDateTime start, long id, Pageable pageable);
+
+    @Query(SELECT_HISTORY_SHORT +
+            "where b.booker.id = ?1 " +
+            "and b.end < ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllPastBookingsByUserBefore(long userId, LocalDateTime dateTime,
+                                                           LocalDateTime start, long id, Pageable pageable);
+
+    @Query(SELECT_SHORT +
+            "where b.booker.id = ?1 " +
+            "and b.start > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllFutureBookingsByUserBefore(long userId, LocalDateTime dateTime,
+                                                             LocalDateTime start, long id, Pageable pageable);
+
+    @Query(SELECT_HISTORY_SHORT +
+            "where b.booker.id = ?1 " +
+            "and b.status = 'REJECTED' " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllRejectedBookingsByUserBefore(long userId, LocalDateTime start, long id,
+                                                               Pageable pageable);
+
+    @Query(SELECT_SHORT +
+            "where b.booker.id = ?1 " +
+            "and b.status = 'WAITING' " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllWaitingBookingsByUserBefore(long userId, LocalDateTime start, long id,
+                                                              Pageable pageable);
+
+    @Query(SELECT_HISTORY_SHORT +
+            "where i.owner.id = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllItemsBookingsBefore(Long userId, LocalDateTime start, long id,
+                                                      Pageable pageable);
+
+    @Query(SELECT_SHORT +
+            "where i.owner.id = ?1 " +
+            "and ?2 between b.start and b.end " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllItemsCurrentBookingsBefore(Long userId, LocalDateTime dateTime,
+                                                             LocalDateTime start, long id, Pageable pageable);
+
+    @Query(SELECT_HISTORY_SHORT +
+            "where i.owner.id = ?1 " +
+            "and b.end < ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllItemsPastBookingsBefore(Long userId, LocalDateTime dateTime, LocalDateTime start,
+                                                          long id, Pageable pageable);
+
+    @Query(SELECT_SHORT +
+            "where i.owner.id = ?1 " +
+            "and b.start > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id < ?4)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllItemsFutureBookingsBefore(Long userId, LocalDateTime dateTime,
+                                                            LocalDateTime start, long id, Pageable pageable);
+
+    @Query(SELECT_HISTORY_SHORT +
+            "where i.owner.id = ?1 " +
+            "and b.status = 'REJECTED' " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllItemsRejectedBookingsBefore(Long userId, LocalDateTime start, long id,
+                                                              Pageable pageable);
+
+    @Query(SELECT_SHORT +
+            "where i.owner.id = ?1 " +
+            "and b.status = 'WAITING' " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3)) " +
+            "order by b.start desc, b.id desc")
+    Slice<BookingDtoShort> findAllItemsWaitingBookingsBefore(Long userId, LocalDateTime start, long id,
+                                                             Pageable pageable);
+}
@@ -1,16 +1,30 @@
 package ru.practicum.shareit.booking;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
     BookingDto createBooking(long userId, BookingDtoToCreate bookingDto);
 
+    List<BookingBatchResult> createBookings(long userId, List<BookingDtoToCreate> bookingDtos);
+
     BookingDto approveBooking(long userId, long bookingId, boolean approved);
 
+    List<BookingDecisionResult> approveBookings(long userId, List<Long> bookingIds, boolean approved);
+
     BookingDto getBooking(long userId, long bookingDto);
 
-    List<BookingDto> getUserBookings(long userId, String state, Integer from, Integer size);
+    List<BookingDtoShort> getUserBookings(long userId, String state, Integer from, Integer size);
+
+    List<BookingDtoShort> getAllUserItemsBookings(long userId, String state, Integer from, Integer size);
+
+    Map<State, Long> getOwnerSummary(long userId);
+
+    void exportBookings(long userId, boolean owner, Consumer<BookingDtoShort> consumer);
+
+    BookingSlice getUserBookingsByCursor(long userId, String state, String cursor, Integer size);
 
-    List<BookingDto> getAllUserItemsBookings(long userId, String state, Integer from, Integer size);
+    BookingSlice getAllUserItemsBookingsByCursor(long userId, String state, String cursor, Integer size);
 }
@@ -1,22 +1,36 @@
 package ru.practicum.shareit.booking;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemViewCache;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.BookingMapper.dtoToCreateToModel;
 import static ru.practicum.shareit.booking.BookingMapper.modelToDto;
@@ -28,54 +42,145 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final UserCache userCache;
+    private final BookingOverlapGuard overlapGuard;
+    private final ItemViewCache itemViewCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OwnerBookingSummary ownerBookingSummary;
 
-    public BookingServiceImpl(BookingRepository bookingRepository, UserRepository userRepository, ItemRepository itemRepository) {
+    public BookingServiceImpl(BookingRepository bookingRepository, UserRepository userRepository, ItemRepository itemRepository, UserCache userCache, BookingOverlapGuard overlapGuard, ItemViewCache itemViewCache, ApplicationEventPublisher eventPublisher, OwnerBookingSummary ownerBookingSummary) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
+        this.userCache = userCache;
+        this.overlapGuard = overlapGuard;
+        this.itemViewCache = itemViewCache;
+        this.eventPublisher = eventPublisher;
+        this.ownerBookingSummary = ownerBookingSummary;
     }
 
     @Override
     @Transactional
     public BookingDto createBooking(long userId, BookingDtoToCreate bookingDto) {
-        if (bookingDto.getStart().isEqual(bookingDto.getEnd()) ||
-                bookingDto.getEnd().isBefore(bookingDto.getStart())) {
-            throw new ValidationException("Not valid start and end date");
-        }
+        checkDates(bookingDto);
         User userFromDb = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
         Item itemFromDb = itemRepository.findById(bookingDto.getItemId())
                 .orElseThrow(() -> new ItemNotFoundException("Item not found"));
+        checkBookable(userId, itemFromDb, bookingDto);
+        Booking bookingCreated = bookingRepository.save(toNewBooking(userFromDb, itemFromDb, bookingDto));
+        eventPublisher.publishEvent(BookingChangedEvent.of(bookingCreated));
+        log.info("Создали бронирование с id{}", bookingCreated.getId());
+        return modelToDto(bookingCreated);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResult> createBookings(long userId, List<BookingDtoToCreate> bookingDtos) {
+        User userFromDb = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDtoToCreate::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<BookingBatchResult> results = new ArrayList<>(bookingDtos.size());
+        List<Booking> bookingsToCreate = new ArrayList<>(bookingDtos.size());
+        List<Integer> createdIndexes = new ArrayList<>(bookingDtos.size());
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDtoToCreate bookingDto = bookingDtos.get(i);
+            try {
+                checkDates(bookingDto);
+                Item itemFromDb = items.get(bookingDto.getItemId());
+                if (itemFromDb == null) throw new ItemNotFoundException("Item not found");
+                checkBookable(userId, itemFromDb, bookingDto);
+                bookingsToCreate.add(toNewBooking(userFromDb, itemFromDb, bookingDto));
+                createdIndexes.add(i);
+                results.add(null);
+            } catch (ValidationException | ItemNotFoundException | UserNotFoundException
+                     | ItemNotAvailableException e) {
+                results.add(BookingBatchResult.failed(i, e.getMessage()));
+            }
+        }
+        List<Booking> bookingsCreated = bookingRepository.saveAll(bookingsToCreate);
+        for (int i = 0; i < bookingsCreated.size(); i++) {
+            int index = createdIndexes.get(i);
+            eventPublisher.publishEvent(BookingChangedEvent.of(bookingsCreated.get(i)));
+            results.set(index, BookingBatchResult.created(index, modelToDto(bookingsCreated.get(i))));
+        }
+        log.info("Пользователь с id{} создал {} из {} бронирований пакетом", userId, bookingsCreated.size(),
+                bookingDtos.size());
+        return results;
+    }
+
+    private void checkDates(BookingDtoToCreate bookingDto) {
+        if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            throw new ValidationException("Not valid start and end date");
+        }
+        if (bookingDto.getStart().isEqual(bookingDto.getEnd()) ||
+                bookingDto.getEnd().isBefore(bookingDto.getStart())) {
+            throw new ValidationException("Not valid start and end date");
+        }
+    }
+
+    private void checkBookable(long userId, Item itemFromDb, BookingDtoToCreate bookingDto) {
         if (itemFromDb.getOwner().getId() == userId) throw new UserNotFoundException("Current user is item host");
         if (!itemFromDb.getIsAvailable()) throw new ItemNotAvailableException("Item is not available");
+        if (!overlapGuard.isFree(itemFromDb.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new ItemNotAvailableException("Item is already booked for these dates");
+        }
+    }
+
+    private Booking toNewBooking(User booker, Item item, BookingDtoToCreate bookingDto) {
         Booking bookingToCreate = dtoToCreateToModel(bookingDto);
-        bookingToCreate.setBooker(userFromDb);
+        bookingToCreate.setBooker(booker);
         bookingToCreate.setStatus(BookingStatus.WAITING);
-        bookingToCreate.setItem(itemFromDb);
-        Booking bookingCreated = bookingRepository.save(bookingToCreate);
-        log.info("Создали бронирование с id{}", bookingCreated.getId());
-        return modelToDto(bookingCreated);
+        bookingToCreate.setItem(item);
+        return bookingToCreate;
     }
 
     @Override
     @Transactional
     public BookingDto approveBooking(long userId, long bookingId, boolean approved) {
-        User userFromDb = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException("Booking not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        Optional<Booking> found = bookingRepository.findById(bookingId);
+        if (found.isEmpty()) {
+            BookingHistory archived = bookingRepository.findHistoryById(bookingId)
+                    .orElseThrow(() -> new BookingNotFoundException("Booking not found"));
+            if (archived.getItem().getOwner().getId() != userId) {
+                throw new HostNotFoundException("User is not the item host");
+            }
+            throw new ValidationException("Item status is already set");
+        }
+        Booking booking = found.get();
         if ((booking.getStatus() == BookingStatus.APPROVED && approved == true)
                 || (booking.getStatus() == BookingStatus.REJECTED && approved == false)) {
             throw new ValidationException("Item status is already set");
         }
         if (booking.getItem().getOwner().getId() == userId) {
+            BookingStatus previousStatus = booking.getStatus();
             if (approved) {
+                overlapGuard.reserve(booking);
                 booking.setStatus(BookingStatus.APPROVED);
-                booking = bookingRepository.save(booking);
+                try {
+                    booking = bookingRepository.save(booking);
+                    bookingRepository.flush();
+                } catch (DataIntegrityViolationException e) {
+                    throw new ItemNotAvailableException("Item is already booked for these dates");
+                }
+                itemViewCache.evictBookings(booking.getItem().getId());
+                eventPublisher.publishEvent(BookingChangedEvent.of(booking, previousStatus));
                 log.info("Пользователь с id{} одобрил бронирование с id{}", userId, booking.getId());
             } else {
+                if (booking.getStatus() == BookingStatus.APPROVED) {
+                    overlapGuard.release(booking);
+                    itemViewCache.evictBookings(booking.getItem().getId());
+                }
                 booking.setStatus(BookingStatus.REJECTED);
                 booking = bookingRepository.save(booking);
+                eventPublisher.publishEvent(BookingChangedEvent.of(booking, previousStatus));
                 log.info("Пользователь с id{} не одобрил бронирование с id{}", userId, booking.getId());
             }
         } else {
@@ -84,11 +189,104 @@ public class BookingServiceImpl implements BookingService {
         return modelToDto(booking);
     }
 
+    @Override
+    @Transactional
+    public List<BookingDecisionResult> approveBookings(long userId, List<Long> bookingIds, boolean approved) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        Map<Long, BookingDecisionEntry> entries = bookingRepository.findDecisionEntriesByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(BookingDecisionEntry::getId, Function.identity()));
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        BookingDecisionOutcome decided = approved ? BookingDecisionOutcome.APPROVED : BookingDecisionOutcome.REJECTED;
+        Map<Long, BookingDecisionOutcome> outcomes = new LinkedHashMap<>();
+        List<Long> idsToUpdate = new ArrayList<>();
+        Map<Long, List<TimeRange>> reservedByItem = new HashMap<>();
+        for (Long bookingId : bookingIds) {
+            if (outcomes.containsKey(bookingId)) {
+                continue;
+            }
+            BookingDecisionEntry entry = entries.get(bookingId);
+            if (entry == null) {
+                outcomes.put(bookingId, BookingDecisionOutcome.NOT_FOUND);
+            } else if (entry.getOwnerId() != userId) {
+                outcomes.put(bookingId, BookingDecisionOutcome.NOT_OWNER);
+            } else if (entry.getStatus() != BookingStatus.WAITING) {
+                outcomes.put(bookingId, BookingDecisionOutcome.NOT_WAITING);
+            } else {
+                if (approved) {
+                    List<TimeRange> reserved = reservedByItem.computeIfAbsent(entry.getItemId(),
+                            id -> new ArrayList<>());
+                    boolean overlapsBatch = reserved.stream()
+                            .anyMatch(range -> range.getStart().isBefore(entry.getEnd())
+                                    && entry.getStart().isBefore(range.getEnd()));
+                    if (overlapsBatch) {
+                        outcomes.put(bookingId, BookingDecisionOutcome.ALREADY_BOOKED);
+                        continue;
+                    }
+                    try {
+                        overlapGuard.reserve(toSlot(entry));
+                    } catch (ItemNotAvailableException e) {
+                        outcomes.put(bookingId, BookingDecisionOutcome.ALREADY_BOOKED);
+                        continue;
+                    }
+                    reserved.add(new TimeRange(entry.getStart(), entry.getEnd()));
+                }
+                outcomes.put(bookingId, decided);
+                idsToUpdate.add(bookingId);
+                if (approved) {
+                    itemViewCache.evictBookings(entry.getItemId());
+                }
+            }
+        }
+        if (!idsToUpdate.isEmpty()) {
+            int updated;
+            try {
+                updated = bookingRepository.updateWaitingStatusByOwner(idsToUpdate, userId, status);
+            } catch (DataIntegrityViolationException e) {
+                throw new ItemNotAvailableException("Item is already booked for these dates");
+            }
+            if (updated != idsToUpdate.size()) {
+                for (BookingDecisionEntry entry : bookingRepository.findDecisionEntriesByIdIn(idsToUpdate)) {
+                    if (entry.getStatus() != status) {
+                        outcomes.put(entry.getId(), BookingDecisionOutcome.NOT_WAITING);
+                        if (approved) {
+                            overlapGuard.release(toSlot(entry));
+                        }
+                    }
+                }
+            }
+            for (Long bookingId : idsToUpdate) {
+                if (outcomes.get(bookingId) == decided) {
+                    BookingDecisionEntry entry = entries.get(bookingId);
+                    eventPublisher.publishEvent(new BookingChangedEvent(bookingId, entry.getItemId(),
+                            entry.getOwnerId(), entry.getStart(), entry.getEnd(), BookingStatus.WAITING, status));
+                }
+            }
+            log.info("Пользователь с id{} изменил статус {} бронирований на {}", userId, updated, status);
+        }
+        return outcomes.entrySet().stream()
+                .map(outcome -> new BookingDecisionResult(outcome.getKey(), outcome.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private static Booking toSlot(ApprovedBookingEntry entry) {
+        return Booking.builder()
+                .id(entry.getId())
+                .start(entry.getStart())
+                .end(entry.getEnd())
+                .item(Item.builder().id(entry.getItemId()).build())
+                .build();
+    }
+
     @Override
     public BookingDto getBooking(long userId, long bookingId) {
-        User userFromDb = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-        Booking booking = bookingRepository.findById(bookingId)
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        BookingDto booking = bookingRepository.findById(bookingId)
+                .map(BookingMapper::modelToDto)
+                .or(() -> bookingRepository.findHistoryById(bookingId).map(BookingMapper::modelToDto))
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found"));
 
         if (booking.getBooker().getId() != userId && booking.getItem().getOwner().getId() != userId) {
@@ -96,13 +294,14 @@ public class BookingServiceImpl implements BookingService {
                     "for item owner");
         }
         log.info("Пользователь с id{} получил данные бронирования с id{}", userId, bookingId);
-        return modelToDto(booking);
+        return booking;
     }
 
     @Override
-    public List<BookingDto> getUserBookings(long userId, String stateAsString, Integer from, Integer size) {
-        User userFromDb = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    public List<BookingDtoShort> getUserBookings(long userId, String stateAsString, Integer from, Integer size) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
         State state;
         try {
             state = State.valueOf(stateAsString);
@@ -110,8 +309,8 @@ public class BookingServiceImpl implements BookingService {
             throw new StateValidationException("Unknown state: UNSUPPORTED_STATUS");
         }
         int page = from / size;
-        Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
-        Page<Booking> result;
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
+        Slice<BookingDtoShort> result;
         switch (state) {
             case ALL:
                 result = bookingRepository.findAllByBookerIdOrderByStartDesc(userId, pageable);
@@ -132,18 +331,17 @@ public class BookingServiceImpl implements BookingService {
                 result = bookingRepository.findAllWaitingBookingsByUser(userId, pageable);
                 break;
             default:
-                result = Page.empty();
+                result = new SliceImpl<>(List.of());
         }
         log.info("Получили все бронирования пользователя с id{}", userId);
-        return result.stream()
-                .map(x -> modelToDto(x))
-                .collect(Collectors.toList());
+        return result.getContent();
     }
 
     @Override
-    public List<BookingDto> getAllUserItemsBookings(long userId, String stateAsString, Integer from, Integer size) {
-        User userFromDb = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    public List<BookingDtoShort> getAllUserItemsBookings(long userId, String stateAsString, Integer from, Integer size) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
         int page = from / size;
         State state;
         try {
@@ -152,8 +350,8 @@ public class BookingServiceImpl implements BookingService {
             throw new StateValidationException("Unknown state: UNSUPPORTED_STATUS");
         }
 
-        Page<Booking> result;
-        Pageable pageable2 = PageRequest.of(page, size, Sort.by("start").ascending());
+        Slice<BookingDtoShort> result;
+        Pageable pageable2 = PageRequest.of(page, size, Sort.by("id").descending());
         switch (state) {
             case ALL:
                 result = bookingRepository.findAllItemsBookings(userId, pageable2);
@@ -174,11 +372,128 @@ public class BookingServiceImpl implements BookingService {
                 result = bookingRepository.findAllItemsWaitingBookings(userId, pageable2);
                 break;
             default:
-                result = Page.empty();
+                result = new SliceImpl<>(List.of());
         }
         log.info("Получили список бронирований всех предметов пользователя с id{}", userId);
-        return result.stream()
-                .map(x -> modelToDto(x))
-                .collect(Collectors.toList());
+        return result.getContent();
+    }
+
+    @Override
+    public Map<State, Long> getOwnerSummary(long userId) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        log.info("Получили сводку бронирований предметов пользователя с id{}", userId);
+        return ownerBookingSummary.get(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBookings(long userId, boolean owner, Consumer<BookingDtoShort> consumer) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        long[] exported = {0};
+        try (Stream<BookingDtoShort> bookings = owner
+                ? bookingRepository.streamAllItemsBookings(userId)
+                : bookingRepository.streamAllByBookerId(userId)) {
+            bookings.forEach(booking -> {
+                consumer.accept(booking);
+                exported[0]++;
+            });
+        }
+        log.info("Пользователь с id{} выгрузил {} бронирований", userId, exported[0]);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingSlice getUserBookingsByCursor(long userId, String stateAsString, String cursor, Integer size) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        State state = parseState(stateAsString);
+        BookingCursor position = BookingCursor.decode(cursor);
+        LocalDateTime start = position.getStart();
+        long id = position.getId();
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<BookingDtoShort> result;
+        switch (state) {
+            case ALL:
+                result = bookingRepository.findAllBookingsByUserBefore(userId, start, id, pageable);
+                break;
+            case CURRENT:
+                result = bookingRepository.findAllCurrentBookingsByUserBefore(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case PAST:
+                result = bookingRepository.findAllPastBookingsByUserBefore(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case REJECTED:
+                result = bookingRepository.findAllRejectedBookingsByUserBefore(userId, start, id, pageable);
+                break;
+            case FUTURE:
+                result = bookingRepository.findAllFutureBookingsByUserBefore(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case WAITING:
+                result = bookingRepository.findAllWaitingBookingsByUserBefore(userId, start, id, pageable);
+                break;
+            default:
+                result = new SliceImpl<>(List.of());
+        }
+        log.info("Получили бронирования пользователя с id{} по курсору", userId);
+        return toBookingSlice(result);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookingSlice getAllUserItemsBookingsByCursor(long userId, String stateAsString, String cursor, Integer size) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        State state = parseState(stateAsString);
+        BookingCursor position = BookingCursor.decode(cursor);
+        LocalDateTime start = position.getStart();
+        long id = position.getId();
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<BookingDtoShort> result;
+        switch (state) {
+            case ALL:
+                result = bookingRepository.findAllItemsBookingsBefore(userId, start, id, pageable);
+                break;
+            case CURRENT:
+                result = bookingRepository.findAllItemsCurrentBookingsBefore(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case PAST:
+                result = bookingRepository.findAllItemsPastBookingsBefore(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case REJECTED:
+                result = bookingRepository.findAllItemsRejectedBookingsBefore(userId, start, id, pageable);
+                break;
+            case FUTURE:
+                result = bookingRepository.findAllItemsFutureBookingsBefore(userId, LocalDateTime.now(), start, id, pageable);
+                break;
+            case WAITING:
+                result = bookingRepository.findAllItemsWaitingBookingsBefore(userId, start, id, pageable);
+                break;
+            default:
+                result = new SliceImpl<>(List.of());
+        }
+        log.info("Получили бронирования предметов пользователя с id{} по курсору", userId);
+        return toBookingSlice(result);
+    }
+
+    private State parseState(String stateAsString) {
+        try {
+            return State.valueOf(stateAsString);
+        } catch (Exception e) {
+            throw new StateValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    private BookingSlice toBookingSlice(Slice<BookingDtoShort> slice) {
+        List<BookingDtoShort> bookings = slice.getContent();
+        String nextCursor = slice.hasNext() && !bookings.isEmpty()
+                ? BookingCursor.after(bookings.get(bookings.size() - 1)).encode()
+                : null;
+        return new BookingSlice(bookings, nextCursor);
     }
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class BookingSlice {
+
+    private final List<BookingDtoShort> bookings;
+
+    private final String nextCursor;
+
+    public BookingSlice(List<BookingDtoShort> bookings, String nextCursor) {
+        this.bookings = bookings;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Component
+@EnableConfigurationProperties(BookingEventProperties.class)
+@Slf4j
+public class BookingStatusHub {
+
+    public static final String STATUS_EVENT = "status";
+
+    private final BookingEventProperties properties;
+
+    private final ExecutorService sender;
+
+    private final Map<Long, Set<Subscriber>> subscribersByBooking = new ConcurrentHashMap<>();
+
+    public BookingStatusHub(BookingEventProperties properties) {
+        this.properties = properties;
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "booking-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(long bookingId, Supplier<BookingStatus> currentStatus) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(bookingId, emitter, properties.getBufferSize());
+        subscribersByBooking.computeIfAbsent(bookingId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        BookingStatus status;
+        try {
+            status = currentStatus.get();
+        } catch (RuntimeException e) {
+            unsubscribe(subscriber);
+            throw e;
+        }
+        subscriber.offer(new BookingStatusUpdate(bookingId, status));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.getPreviousStatus() == null) {
+            return;
+        }
+        Set<Subscriber> subscribers = subscribersByBooking.get(event.getBookingId());
+        if (subscribers == null) {
+            return;
+        }
+        BookingStatusUpdate update = new BookingStatusUpdate(event.getBookingId(), event.getStatus());
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(update);
+        }
+    }
+
+    int countSubscribers(long bookingId) {
+        return subscribersByBooking.getOrDefault(bookingId, Set.of()).size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribersByBooking.values().forEach(subscribers -> subscribers.forEach(x -> x.emitter.complete()));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribersByBooking.computeIfPresent(subscriber.bookingId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private class Subscriber {
+
+        private final long bookingId;
+
+        private final SseEmitter emitter;
+
+        private final Queue<BookingStatusUpdate> buffer;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(long bookingId, SseEmitter emitter, int bufferSize) {
+            this.bookingId = bookingId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(BookingStatusUpdate update) {
+            while (!buffer.offer(update)) {
+                buffer.poll();
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                BookingStatusUpdate update;
+                while ((update = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .name(STATUS_EVENT)
+                            .data(update, MediaType.APPLICATION_JSON));
+                    if (update.getStatus() != BookingStatus.WAITING) {
+                        unsubscribe(this);
+                        buffer.clear();
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подписчик на бронирование с id{} отключился", bookingId);
+                unsubscribe(this);
+                buffer.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+    }
+}
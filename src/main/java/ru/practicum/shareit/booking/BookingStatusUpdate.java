@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+
+@Getter
+public class BookingStatusUpdate {
+
+    private final long bookingId;
+
+    private final BookingStatus status;
+
+    public BookingStatusUpdate(long bookingId, BookingStatus status) {
+        this.bookingId = bookingId;
+        this.status = status;
+    }
+}
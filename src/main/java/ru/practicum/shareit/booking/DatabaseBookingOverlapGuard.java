@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ItemNotAvailableException;
+
+import java.time.LocalDateTime;
+
+@Component
+@ConditionalOnProperty(name = "shareit.booking.overlap-guard", havingValue = "database")
+public class DatabaseBookingOverlapGuard implements BookingOverlapGuard {
+
+    private final BookingRepository bookingRepository;
+
+    public DatabaseBookingOverlapGuard(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @Override
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        return !bookingRepository.existsApprovedOverlap(itemId, start, end);
+    }
+
+    @Override
+    public void reserve(Booking booking) {
+        if (!isFree(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+            throw new ItemNotAvailableException("Item is already booked for these dates");
+        }
+    }
+
+    @Override
+    public void release(Booking booking) {
+    }
+}
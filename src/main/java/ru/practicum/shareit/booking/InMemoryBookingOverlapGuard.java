@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ItemNotAvailableException;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Component
+@ConditionalOnProperty(name = "shareit.booking.overlap-guard", havingValue = "in-memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryBookingOverlapGuard implements BookingOverlapGuard {
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, NavigableMap<LocalDateTime, Slot>> slotsByItem = new ConcurrentHashMap<>();
+
+    public InMemoryBookingOverlapGuard(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int loaded = 0;
+        for (ApprovedBookingEntry entry : bookingRepository.findAllApprovedEndingAfter(LocalDateTime.now())) {
+            withSlots(entry.getItemId(), slots -> {
+                if (overlaps(slots, entry.getStart(), entry.getEnd())) {
+                    log.warn("Одобренное бронирование с id{} пересекается с другим", entry.getId());
+                }
+                return slots.put(entry.getStart(), new Slot(entry.getId(), entry.getEnd()));
+            });
+            loaded++;
+        }
+        log.info("Загрузили {} одобренных бронирований для проверки пересечений", loaded);
+    }
+
+    @Override
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Slot> slots = slotsByItem.get(itemId);
+        if (slots == null) {
+            return true;
+        }
+        synchronized (slots) {
+            prune(slots, LocalDateTime.now());
+            return !overlaps(slots, start, end);
+        }
+    }
+
+    @Override
+    public void reserve(Booking booking) {
+        withSlots(booking.getItem().getId(), slots -> {
+            prune(slots, LocalDateTime.now());
+            if (overlaps(slots, booking.getStart(), booking.getEnd())) {
+                throw new ItemNotAvailableException("Item is already booked for these dates");
+            }
+            return slots.put(booking.getStart(), new Slot(booking.getId(), booking.getEnd()));
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        remove(booking);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void release(Booking booking) {
+        AfterCommit.run(() -> remove(booking));
+    }
+
+    private void remove(Booking booking) {
+        NavigableMap<LocalDateTime, Slot> slots = slotsByItem.get(booking.getItem().getId());
+        if (slots == null) {
+            return;
+        }
+        synchronized (slots) {
+            Slot slot = slots.get(booking.getStart());
+            if (slot != null && slot.bookingId == booking.getId()) {
+                slots.remove(booking.getStart());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.overlap-guard-prune-interval:PT1H}",
+            fixedDelayString = "${shareit.booking.overlap-guard-prune-interval:PT1H}")
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        for (Map.Entry<Long, NavigableMap<LocalDateTime, Slot>> item : slotsByItem.entrySet()) {
+            NavigableMap<LocalDateTime, Slot> slots = item.getValue();
+            synchronized (slots) {
+                prune(slots, now);
+                if (slots.isEmpty() && slotsByItem.remove(item.getKey(), slots)) {
+                    removed++;
+                }
+            }
+        }
+        log.info("Удалили завершенные бронирования {} предметов из проверки пересечений", removed);
+    }
+
+    private <T> T withSlots(long itemId, Function<NavigableMap<LocalDateTime, Slot>, T> action) {
+        while (true) {
+            NavigableMap<LocalDateTime, Slot> slots = slotsByItem.computeIfAbsent(itemId, id -> new TreeMap<>());
+            synchronized (slots) {
+                if (slotsByItem.get(itemId) == slots) {
+                    return action.apply(slots);
+                }
+            }
+        }
+    }
+
+    private static void prune(NavigableMap<LocalDateTime, Slot> slots, LocalDateTime now) {
+        while (!slots.isEmpty() && !slots.firstEntry().getValue().end.isAfter(now)) {
+            slots.pollFirstEntry();
+        }
+    }
+
+    private static boolean overlaps(NavigableMap<LocalDateTime, Slot> slots, LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, Slot> previous = slots.lowerEntry(end);
+        return previous != null && previous.getValue().end.isAfter(start);
+    }
+
+    private static class Slot {
+
+        private final long bookingId;
+
+        private final LocalDateTime end;
+
+        Slot(long bookingId, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class ItemOccupancy {
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, Slots> slotsByItem = new ConcurrentHashMap<>();
+
+    public ItemOccupancy(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<BookingOccupancyEntry> entries = bookingRepository.findAllOccupyingEndingAfter(LocalDateTime.now());
+        for (BookingOccupancyEntry entry : entries) {
+            occupy(entry.getItemId(), new Slot(entry.getId(), entry.getStart(), entry.getEnd()));
+        }
+        log.info("Загрузили {} бронирований в календарь занятости предметов", entries.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Slot slot = new Slot(event.getBookingId(), event.getStart(), event.getEnd());
+        if (event.getStatus() == BookingStatus.WAITING || event.getStatus() == BookingStatus.APPROVED) {
+            occupy(event.getItemId(), slot);
+        } else {
+            Slots slots = slotsByItem.get(event.getItemId());
+            if (slots != null) {
+                synchronized (slots) {
+                    slots.intervals.remove(slot);
+                }
+            }
+        }
+    }
+
+    public List<TimeRange> busy(long itemId, LocalDateTime from, LocalDateTime to) {
+        List<TimeRange> busy = new ArrayList<>();
+        Slots slots = slotsByItem.get(itemId);
+        if (slots == null) {
+            return busy;
+        }
+        synchronized (slots) {
+            slots.intervals.headSet(new Slot(Long.MIN_VALUE, LocalDateTime.now().minus(slots.longest), null))
+                    .clear();
+            NavigableSet<Slot> candidates = slots.intervals.subSet(
+                    new Slot(Long.MIN_VALUE, from.minus(slots.longest), null), true,
+                    new Slot(Long.MIN_VALUE, to, null), false);
+            LocalDateTime busyStart = null;
+            LocalDateTime busyEnd = null;
+            for (Slot slot : candidates) {
+                if (!slot.end.isAfter(from)) {
+                    continue;
+                }
+                LocalDateTime start = slot.start.isBefore(from) ? from : slot.start;
+                LocalDateTime end = slot.end.isAfter(to) ? to : slot.end;
+                if (busyEnd != null && !start.isAfter(busyEnd)) {
+                    if (end.isAfter(busyEnd)) {
+                        busyEnd = end;
+                    }
+                } else {
+                    if (busyStart != null) {
+                        busy.add(new TimeRange(busyStart, busyEnd));
+                    }
+                    busyStart = start;
+                    busyEnd = end;
+                }
+            }
+            if (busyStart != null) {
+                busy.add(new TimeRange(busyStart, busyEnd));
+            }
+        }
+        return busy;
+    }
+
+    public boolean isFree(long itemId, LocalDateTime start, LocalDateTime end) {
+        Slots slots = slotsByItem.get(itemId);
+        if (slots == null) {
+            return true;
+        }
+        synchronized (slots) {
+            NavigableSet<Slot> candidates = slots.intervals.subSet(
+                    new Slot(Long.MIN_VALUE, start.minus(slots.longest), null), true,
+                    new Slot(Long.MIN_VALUE, end, null), false);
+            for (Slot slot : candidates) {
+                if (slot.end.isAfter(start)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void occupy(long itemId, Slot slot) {
+        Slots slots = slotsByItem.computeIfAbsent(itemId, id -> new Slots());
+        synchronized (slots) {
+            slots.intervals.add(slot);
+            Duration duration = Duration.between(slot.start, slot.end);
+            if (duration.compareTo(slots.longest) > 0) {
+                slots.longest = duration;
+            }
+        }
+    }
+
+    private static class Slots {
+
+        private final NavigableSet<Slot> intervals = new TreeSet<>(Comparator
+                .comparing((Slot slot) -> slot.start)
+                .thenComparingLong(slot -> slot.bookingId));
+
+        private Duration longest = Duration.ZERO;
+    }
+
+    private static class Slot {
+
+        private final long bookingId;
+
+        private final LocalDateTime start;
+
+        private final LocalDateTime end;
+
+        Slot(long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking;
+
+public interface OwnerBookingCounts {
+
+    long getOwnerId();
+
+    long getWaiting();
+
+    long getRejected();
+
+    long getPast();
+}
@@ -0,0 +1,196 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class OwnerBookingSummary {
+
+    private final BookingRepository bookingRepository;
+
+    private final TransactionTemplate snapshotTransaction;
+
+    private volatile Map<Long, Counters> countersByOwner = new ConcurrentHashMap<>();
+
+    private final Object rebuildLock = new Object();
+
+    private List<BookingChangedEvent> pending;
+
+    public OwnerBookingSummary(BookingRepository bookingRepository, PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${shareit.booking-summary.reconcile-interval:PT10M}",
+            fixedDelayString = "${shareit.booking-summary.reconcile-interval:PT10M}")
+    public void reconcile() {
+        synchronized (rebuildLock) {
+            pending = new ArrayList<>();
+        }
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                Map<Long, Counters> rebuilt = new ConcurrentHashMap<>();
+                for (OwnerBookingCounts counts : bookingRepository.countAllByOwner(now)) {
+                    Counters counters = rebuilt.computeIfAbsent(counts.getOwnerId(), id -> new Counters());
+                    counters.waiting = counts.getWaiting();
+                    counters.rejected = counts.getRejected();
+                    counters.past = counts.getPast();
+                }
+                List<BookingDecisionEntry> entries = bookingRepository.findAllOwnerEntriesEndingFrom(now);
+                for (BookingDecisionEntry entry : entries) {
+                    rebuilt.computeIfAbsent(entry.getOwnerId(), id -> new Counters())
+                            .add(entry.getStart(), entry.getEnd(), now);
+                }
+                synchronized (rebuildLock) {
+                    int replayed = replayMissing(rebuilt);
+                    countersByOwner = rebuilt;
+                    log.info("Пересчитали счетчики бронирований для {} владельцев, применили {} событий",
+                            rebuilt.size(), replayed);
+                }
+            });
+        } finally {
+            synchronized (rebuildLock) {
+                pending = null;
+            }
+        }
+    }
+
+    private int replayMissing(Map<Long, Counters> rebuilt) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<BookingChangedEvent>> eventsByBooking = pending.stream()
+                .collect(Collectors.groupingBy(BookingChangedEvent::getBookingId, LinkedHashMap::new,
+                        Collectors.toList()));
+        Map<Long, BookingStatus> snapshotStatuses = bookingRepository
+                .findDecisionEntriesByIdIn(eventsByBooking.keySet())
+                .stream()
+                .collect(Collectors.toMap(BookingDecisionEntry::getId, BookingDecisionEntry::getStatus));
+        int replayed = 0;
+        for (Map.Entry<Long, List<BookingChangedEvent>> booking : eventsByBooking.entrySet()) {
+            List<BookingChangedEvent> events = booking.getValue();
+            BookingStatus snapshotStatus = snapshotStatuses.get(booking.getKey());
+            int seen = 0;
+            if (snapshotStatus != null) {
+                for (int i = events.size() - 1; i >= 0; i--) {
+                    if (events.get(i).getStatus() == snapshotStatus) {
+                        seen = i + 1;
+                        break;
+                    }
+                }
+                if (seen == 0 && events.get(0).getPreviousStatus() == null) {
+                    seen = 1;
+                }
+            }
+            for (BookingChangedEvent event : events.subList(seen, events.size())) {
+                apply(rebuilt, event);
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        synchronized (rebuildLock) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            apply(countersByOwner, event);
+        }
+    }
+
+    private static void apply(Map<Long, Counters> countersByOwner, BookingChangedEvent event) {
+        Counters counters = countersByOwner.computeIfAbsent(event.getOwnerId(), id -> new Counters());
+        synchronized (counters) {
+            if (event.getPreviousStatus() == null) {
+                counters.add(event.getStart(), event.getEnd(), LocalDateTime.now());
+            } else {
+                counters.count(event.getPreviousStatus(), -1);
+            }
+            counters.count(event.getStatus(), 1);
+        }
+    }
+
+    public Map<State, Long> get(long ownerId) {
+        Map<State, Long> summary = new EnumMap<>(State.class);
+        Counters counters = countersByOwner.getOrDefault(ownerId, new Counters());
+        synchronized (counters) {
+            counters.advance(LocalDateTime.now());
+            long current = counters.ongoing.size();
+            long future = counters.upcoming.size();
+            summary.put(State.ALL, counters.past + current + future);
+            summary.put(State.CURRENT, current);
+            summary.put(State.PAST, counters.past);
+            summary.put(State.FUTURE, future);
+            summary.put(State.WAITING, counters.waiting);
+            summary.put(State.REJECTED, counters.rejected);
+        }
+        return summary;
+    }
+
+    private static class Counters {
+
+        private long waiting;
+
+        private long rejected;
+
+        private long past;
+
+        private final PriorityQueue<TimeRange> upcoming = new PriorityQueue<>(
+                Comparator.comparing(TimeRange::getStart));
+
+        private final PriorityQueue<LocalDateTime> ongoing = new PriorityQueue<>();
+
+        void add(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+            if (end.isBefore(now)) {
+                past++;
+            } else if (start.isAfter(now)) {
+                upcoming.add(new TimeRange(start, end));
+            } else {
+                ongoing.add(end);
+            }
+        }
+
+        void count(BookingStatus status, int delta) {
+            if (status == BookingStatus.WAITING) {
+                waiting += delta;
+            } else if (status == BookingStatus.REJECTED) {
+                rejected += delta;
+            }
+        }
+
+        void advance(LocalDateTime now) {
+            while (!upcoming.isEmpty() && !upcoming.peek().getStart().isAfter(now)) {
+                ongoing.add(upcoming.poll().getEnd());
+            }
+            while (!ongoing.isEmpty() && ongoing.peek().isBefore(now)) {
+                ongoing.poll();
+                past++;
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@EqualsAndHashCode
+@ToString
+public class TimeRange {
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    public TimeRange(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +15,9 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
             "where i.id = ?1")
     List<Comment> findAllByItem(long itemId);
 
+    @Query("select c from Comment as c " +
+            "join fetch c.user as u " +
+            "where c.item.id in ?1")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
+
 }
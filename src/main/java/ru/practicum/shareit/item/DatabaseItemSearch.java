@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseItemSearch implements ItemSearch {
+
+    private static final Set<BookingStatus> OCCUPYING = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final ItemRepository itemRepository;
+
+    public DatabaseItemSearch(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.findAllByText(text.toLowerCase(), pageable).getContent();
+    }
+
+    @Override
+    public List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        return itemRepository.findAllFreeByText(text.toLowerCase(), start, end, OCCUPYING, pageable).getContent();
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+
+    @Override
+    public void reindex(Collection<Long> itemIds) {
+    }
+
+    @Override
+    public void rebuild() {
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "full-text")
+public class FullTextItemSearch implements ItemSearch {
+
+    private final ItemRepository itemRepository;
+
+    public FullTextItemSearch(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findAllByTsQuery(query, pageable.getPageSize(), pageable.getOffset());
+    }
+
+    @Override
+    public List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findAllFreeByTsQuery(query, start, end, pageable.getPageSize(), pageable.getOffset());
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+
+    @Override
+    public void reindex(Collection<Long> itemIds) {
+    }
+
+    @Override
+    public void rebuild() {
+    }
+
+    static String toTsQuery(String text) {
+        return Arrays.stream(ItemTokenizer.tokenize(text))
+                .map(x -> x + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
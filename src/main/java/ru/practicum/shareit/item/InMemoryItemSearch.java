@@ -0,0 +1,272 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.ItemOccupancy;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "in-memory")
+@Slf4j
+public class InMemoryItemSearch implements ItemSearch {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+
+    private final ItemOccupancy itemOccupancy;
+
+    private final Object rebuildLock = new Object();
+
+    private final Object writeLock = new Object();
+
+    private volatile ConcurrentNavigableMap<String, int[]> postings = new ConcurrentSkipListMap<>();
+
+    private volatile Map<Integer, String[]> tokensByItem = new ConcurrentHashMap<>();
+
+    private List<Map<Integer, String[]>> pendingWrites;
+
+    public InMemoryItemSearch(ItemRepository itemRepository, ItemOccupancy itemOccupancy) {
+        this.itemRepository = itemRepository;
+        this.itemOccupancy = itemOccupancy;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (writeLock) {
+                pendingWrites = new ArrayList<>();
+            }
+            try {
+                Map<String, String> canonicalTokens = new HashMap<>();
+                Map<String, IntStream.Builder> builders = new HashMap<>();
+                Map<Integer, String[]> rebuiltTokens = new ConcurrentHashMap<>();
+                long lastId = 0;
+                List<ItemSearchEntry> batch;
+                do {
+                    batch = itemRepository.findAllByIsAvailableTrueAndIdGreaterThanOrderByIdAsc(lastId,
+                            PageRequest.of(0, BATCH_SIZE));
+                    for (ItemSearchEntry entry : batch) {
+                        int id = Math.toIntExact(entry.getId());
+                        String[] tokens = tokenize(entry.getName(), entry.getDescription());
+                        for (int i = 0; i < tokens.length; i++) {
+                            tokens[i] = canonicalTokens.computeIfAbsent(tokens[i], Function.identity());
+                            builders.computeIfAbsent(tokens[i], x -> IntStream.builder()).add(id);
+                        }
+                        rebuiltTokens.put(id, tokens);
+                        lastId = entry.getId();
+                    }
+                } while (batch.size() == BATCH_SIZE);
+                NavigableMap<String, int[]> sorted = new TreeMap<>();
+                builders.forEach((token, ids) -> sorted.put(token, ids.build().toArray()));
+                ConcurrentNavigableMap<String, int[]> rebuilt = new ConcurrentSkipListMap<>(sorted);
+                synchronized (writeLock) {
+                    pendingWrites.forEach(write -> apply(rebuilt, rebuiltTokens, write));
+                    postings = rebuilt;
+                    tokensByItem = rebuiltTokens;
+                }
+                log.info("Построили поисковый индекс: {} предметов, {} слов", rebuiltTokens.size(), rebuilt.size());
+            } finally {
+                synchronized (writeLock) {
+                    pendingWrites = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return load(match(text), pageable);
+    }
+
+    @Override
+    public List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        int[] matches = Arrays.stream(match(text))
+                .filter(id -> itemOccupancy.isFree(id, start, end))
+                .toArray();
+        return load(matches, pageable);
+    }
+
+    private int[] match(String text) {
+        String[] tokens = ItemTokenizer.tokenize(text);
+        if (tokens.length == 0) {
+            return new int[0];
+        }
+        NavigableMap<String, int[]> current = postings;
+        int[] matches = null;
+        for (String token : tokens) {
+            int[] tokenMatches = prefixMatches(current, token);
+            matches = matches == null ? tokenMatches : intersect(matches, tokenMatches);
+            if (matches.length == 0) {
+                return matches;
+            }
+        }
+        return matches;
+    }
+
+    private List<Item> load(int[] matches, Pageable pageable) {
+        if (pageable.getOffset() >= matches.length) {
+            return List.of();
+        }
+        List<Long> pageIds = Arrays.stream(matches)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .mapToObj(Long::valueOf)
+                .collect(Collectors.toList());
+        Map<Long, Item> items = itemRepository.findAllById(pageIds)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(Item item) {
+        int id = Math.toIntExact(item.getId());
+        String[] tokens = Boolean.TRUE.equals(item.getIsAvailable())
+                ? tokenize(item.getName(), item.getDescription())
+                : null;
+        AfterCommit.run(() -> put(Collections.singletonMap(id, tokens)));
+    }
+
+    @Override
+    public void reindex(Collection<Long> itemIds) {
+        List<Long> ids = List.copyOf(itemIds);
+        AfterCommit.run(() -> {
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                Map<Integer, String[]> tokensById = new HashMap<>();
+                batch.forEach(id -> tokensById.put(Math.toIntExact(id), null));
+                for (ItemSearchEntry entry : itemRepository.findAllByIsAvailableTrueAndIdIn(batch)) {
+                    tokensById.put(Math.toIntExact(entry.getId()), tokenize(entry.getName(), entry.getDescription()));
+                }
+                put(tokensById);
+            }
+            log.info("Переиндексировали {} предметов", ids.size());
+        });
+    }
+
+    private void put(Map<Integer, String[]> tokensById) {
+        synchronized (writeLock) {
+            if (pendingWrites != null) {
+                pendingWrites.add(tokensById);
+            }
+            apply(postings, tokensByItem, tokensById);
+        }
+    }
+
+    private static void apply(ConcurrentNavigableMap<String, int[]> postings, Map<Integer, String[]> tokensByItem,
+                              Map<Integer, String[]> tokensById) {
+        for (Map.Entry<Integer, String[]> change : tokensById.entrySet()) {
+            int id = change.getKey();
+            String[] oldTokens = tokensByItem.remove(id);
+            if (oldTokens != null) {
+                for (String token : oldTokens) {
+                    postings.computeIfPresent(token, (key, ids) -> without(ids, id));
+                }
+            }
+            String[] tokens = change.getValue();
+            if (tokens == null) {
+                continue;
+            }
+            tokens = tokens.clone();
+            for (int i = 0; i < tokens.length; i++) {
+                String existing = postings.ceilingKey(tokens[i]);
+                if (tokens[i].equals(existing)) {
+                    tokens[i] = existing;
+                }
+                postings.compute(tokens[i], (key, ids) -> with(ids, id));
+            }
+            tokensByItem.put(id, tokens);
+        }
+    }
+
+    private static int[] with(int[] ids, int id) {
+        if (ids == null) {
+            return new int[]{id};
+        }
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        int[] added = new int[ids.length + 1];
+        System.arraycopy(ids, 0, added, 0, position);
+        added[position] = id;
+        System.arraycopy(ids, position, added, position + 1, ids.length - position);
+        return added;
+    }
+
+    private static int[] without(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        int[] removed = new int[ids.length - 1];
+        System.arraycopy(ids, 0, removed, 0, position);
+        System.arraycopy(ids, position + 1, removed, position, ids.length - position - 1);
+        return removed;
+    }
+
+    private static String[] tokenize(String name, String description) {
+        return ItemTokenizer.tokenize(Objects.toString(name, "") + " " + Objects.toString(description, ""));
+    }
+
+    private static int[] prefixMatches(NavigableMap<String, int[]> current, String prefix) {
+        if (prefix.length() < MIN_PREFIX_LENGTH) {
+            return current.getOrDefault(prefix, new int[0]);
+        }
+        Collection<int[]> postings = current
+                .subMap(prefix, true, prefix + Character.MAX_VALUE, true)
+                .values();
+        if (postings.size() == 1) {
+            return postings.iterator().next();
+        }
+        return postings.stream()
+                .flatMapToInt(IntStream::of)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -17,7 +17,8 @@ import javax.persistence.*;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_id_seq")
+    @SequenceGenerator(name = "items_id_seq", sequenceName = "items_id_seq", allocationSize = 50)
     private long id;
 
     @Column
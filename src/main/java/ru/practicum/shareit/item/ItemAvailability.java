@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import ru.practicum.shareit.booking.TimeRange;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+public class ItemAvailability {
+
+    private final long itemId;
+
+    private final LocalDateTime from;
+
+    private final LocalDateTime to;
+
+    private final List<TimeRange> busy;
+
+    private final List<TimeRange> free;
+
+    public ItemAvailability(long itemId, LocalDateTime from, LocalDateTime to, List<TimeRange> busy,
+                            List<TimeRange> free) {
+        this.itemId = itemId;
+        this.from = from;
+        this.to = to;
+        this.busy = busy;
+        this.free = free;
+    }
+}
@@ -1,9 +1,14 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -11,10 +16,14 @@ import java.util.List;
 @RequestMapping("/items")
 @Validated
 public class ItemController {
+    public static final String NDJSON = "application/x-ndjson";
+
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ItemImportService itemImportService) {
         this.itemService = itemService;
+        this.itemImportService = itemImportService;
     }
 
     @PostMapping
@@ -23,6 +32,12 @@ public class ItemController {
         return itemCreated;
     }
 
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ItemImportResult importItems(@RequestHeader("X-Sharer-User-id") long userId,
+                                        HttpServletRequest request) throws IOException {
+        return itemImportService.importItems(userId, request.getInputStream());
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader("X-Sharer-User-id") long userId, @PathVariable long itemId, @Validated(ItemDto.Update.class) @RequestBody ItemDto itemDto) {
         itemDto.setId(itemId);
@@ -36,6 +51,13 @@ public class ItemController {
         return itemRequested;
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailability getAvailability(@RequestHeader("X-Sharer-User-id") long userId, @PathVariable long itemId,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping
     public List<ItemDtoWithBookingsAndComments> getOwnerItems(@RequestHeader("X-Sharer-User-id") long userId,
                                                               @RequestParam (value = "from", defaultValue = "0") @Min(0)  Integer from,
@@ -45,9 +67,11 @@ public class ItemController {
 
     @GetMapping("/search")
     public List<ItemDto> searchAvailableItems(@RequestHeader("X-Sharer-User-id") long userId, @RequestParam String text,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
                                               @RequestParam (value = "from", defaultValue = "0") @Min(0)  Integer from,
                                               @RequestParam (value = "size", defaultValue = "10") @Min(1)  Integer size) {
-        return itemService.searchAvailableItems(userId, text, from, size);
+        return itemService.searchAvailableItems(userId, text, start, end, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
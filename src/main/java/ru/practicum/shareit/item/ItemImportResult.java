@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class ItemImportResult {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private int imported;
+
+    private int failed;
+
+    private final List<Error> errors = new ArrayList<>();
+
+    void imported(int count) {
+        imported += count;
+    }
+
+    void failed(int index, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new Error(index, message));
+        }
+    }
+
+    @Getter
+    public static class Error {
+
+        private final int index;
+
+        private final String message;
+
+        Error(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+    }
+}
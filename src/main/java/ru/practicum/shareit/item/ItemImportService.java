@@ -0,0 +1,135 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.item.ItemMapper.dtoToModel;
+
+@Service
+@Slf4j
+public class ItemImportService {
+
+    public static final int CHUNK_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearch itemSearch;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemImportService(ItemRepository itemRepository, UserRepository userRepository,
+                             ItemRequestRepository itemRequestRepository, ItemSearch itemSearch,
+                             EntityManager entityManager, ObjectMapper objectMapper, Validator validator,
+                             TransactionTemplate transactionTemplate) {
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSearch = itemSearch;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public ItemImportResult importItems(long userId, InputStream body) {
+        User owner = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        ItemImportResult result = new ItemImportResult();
+        List<ItemDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token == JsonToken.START_OBJECT) {
+                ItemDto itemDto = objectMapper.readValue(parser, ItemDto.class);
+                Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto, ItemDto.New.class);
+                if (violations.isEmpty()) {
+                    chunk.add(itemDto);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        result.imported(saveChunk(owner, chunk));
+                    }
+                } else {
+                    result.failed(index, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                }
+                index++;
+                token = parser.nextToken();
+            }
+            boolean complete = array ? token == JsonToken.END_ARRAY && parser.nextToken() == null : token == null;
+            if (!complete) {
+                throw new ValidationException("Malformed import body at item " + index);
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed import body at item " + index + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        result.imported(saveChunk(owner, chunk));
+        log.info("Пользователь с id{} импортировал {} предметов, отклонено {}", userId, result.getImported(),
+                result.getFailed());
+        return result;
+    }
+
+    private int saveChunk(User owner, List<ItemDto> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        int saved = transactionTemplate.execute(status -> save(owner, chunk));
+        chunk.clear();
+        return saved;
+    }
+
+    private int save(User owner, List<ItemDto> chunk) {
+        Set<Long> requestIds = chunk.stream()
+                .map(ItemDto::getRequestId)
+                .filter(id -> id != 0)
+                .collect(Collectors.toSet());
+        Set<Long> existingRequestIds = requestIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(itemRequestRepository.findExistingIds(requestIds));
+        List<Item> items = new ArrayList<>(chunk.size());
+        for (ItemDto itemDto : chunk) {
+            Item item = dtoToModel(itemDto);
+            item.setId(0);
+            item.setOwner(owner);
+            if (existingRequestIds.contains(itemDto.getRequestId())) {
+                item.setRequest(itemRequestRepository.getReferenceById(itemDto.getRequestId()));
+            }
+            items.add(item);
+        }
+        itemRepository.saveAll(items);
+        itemRepository.flush();
+        itemSearch.reindex(items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+        entityManager.clear();
+        return items.size();
+    }
+}
@@ -1,28 +1,78 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.BookingStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    Page<Item> findAllByOwnerIdOrderByIdAsc(long userId, Pageable pageable);
+    @EntityGraph(attributePaths = {"owner", "request"})
+    Slice<Item> findAllByOwnerIdOrderByIdAsc(long userId, Pageable pageable);
 
     @Query("select it " +
             "from Item as it " +
             "where ((lower(it.name) like %:text% " +
             "or lower(it.description) like %:text%)" +
             "and it.isAvailable is true) ")
-    Page<Item> findAllByText(@Param("text") String text, Pageable pageable);
+    Slice<Item> findAllByText(@Param("text") String text, Pageable pageable);
+
+    @Query("select it " +
+            "from Item as it " +
+            "where ((lower(it.name) like %:text% " +
+            "or lower(it.description) like %:text%)" +
+            "and it.isAvailable is true) " +
+            "and not exists (select b.id from Booking as b " +
+            "where b.item = it " +
+            "and b.status in :statuses " +
+            "and b.start < :end " +
+            "and b.end > :start)")
+    Slice<Item> findAllFreeByText(@Param("text") String text, @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end,
+                                  @Param("statuses") Collection<BookingStatus> statuses, Pageable pageable);
+
+    @Query(value = "select it.* from items as it " +
+            "where it.is_available = true " +
+            "and to_tsvector('simple', coalesce(it.name, '') || ' ' || coalesce(it.description, '')) " +
+            "@@ to_tsquery('simple', :query) " +
+            "order by ts_rank(to_tsvector('simple', coalesce(it.name, '') || ' ' || coalesce(it.description, '')), " +
+            "to_tsquery('simple', :query)) desc, it.id " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Item> findAllByTsQuery(@Param("query") String query, @Param("limit") int limit, @Param("offset") long offset);
+
+    @Query(value = "select it.* from items as it " +
+            "where it.is_available = true " +
+            "and to_tsvector('simple', coalesce(it.name, '') || ' ' || coalesce(it.description, '')) " +
+            "@@ to_tsquery('simple', :query) " +
+            "and not exists (select 1 from bookings as b " +
+            "where b.item_id = it.id " +
+            "and b.status in ('WAITING', 'APPROVED') " +
+            "and tstzrange(b.start_date, b.end_date) && tstzrange(:start, :end)) " +
+            "order by ts_rank(to_tsvector('simple', coalesce(it.name, '') || ' ' || coalesce(it.description, '')), " +
+            "to_tsquery('simple', :query)) desc, it.id " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Item> findAllFreeByTsQuery(@Param("query") String query, @Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end, @Param("limit") int limit,
+                                    @Param("offset") long offset);
+
+    List<ItemSearchEntry> findAllByIsAvailableTrueAndIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    List<ItemSearchEntry> findAllByIsAvailableTrueAndIdIn(Collection<Long> ids);
 
     List<Item> findAllByRequestIdIn(List<Long> requests);
 
+    @EntityGraph(attributePaths = {"owner"})
+    List<Item> findAllByIdIn(Collection<Long> ids);
+
     List<Item> findAllByRequestId(long requestId);
 
 }
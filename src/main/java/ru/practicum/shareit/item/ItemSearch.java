@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemSearch {
+
+    List<Item> search(String text, Pageable pageable);
+
+    List<Item> searchFree(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    void index(Item item);
+
+    void reindex(Collection<Long> itemIds);
+
+    void rebuild();
+
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+public interface ItemSearchEntry {
+
+    long getId();
+
+    String getName();
+
+    String getDescription();
+
+}
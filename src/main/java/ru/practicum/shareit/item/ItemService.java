@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -12,8 +13,13 @@ public interface ItemService {
 
     List<ItemDtoWithBookingsAndComments> getOwnerItems(long userId, Integer from, Integer size);
 
-    List<ItemDto> searchAvailableItems(long userId, String text, Integer from, Integer size);
+    List<ItemDto> searchAvailableItems(long userId, String text, LocalDateTime start, LocalDateTime end,
+                                       Integer from, Integer size);
+
+    ItemAvailability getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to);
 
     CommentDtoToReturn addComment(long userId, long itemId, CommentDtoToCreate dtoToCreate);
 
+    void rebuildSearchIndex();
+
 }
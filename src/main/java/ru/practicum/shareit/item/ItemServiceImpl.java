@@ -1,20 +1,25 @@
 package ru.practicum.shareit.item;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingDtoForItemHost;
+import ru.practicum.shareit.booking.BookingHistory;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemOccupancy;
+import ru.practicum.shareit.booking.TimeRange;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import javax.validation.ValidationException;
@@ -37,13 +42,21 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearch itemSearch;
+    private final UserCache userCache;
+    private final ItemViewCache itemViewCache;
+    private final ItemOccupancy itemOccupancy;
 
-    public ItemServiceImpl(ItemRepository itemRepository, UserRepository userRepository, BookingRepository bookingRepository, CommentRepository commentRepository, ItemRequestRepository itemRequestRepository) {
+    public ItemServiceImpl(ItemRepository itemRepository, UserRepository userRepository, BookingRepository bookingRepository, CommentRepository commentRepository, ItemRequestRepository itemRequestRepository, ItemSearch itemSearch, UserCache userCache, ItemViewCache itemViewCache, ItemOccupancy itemOccupancy) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemSearch = itemSearch;
+        this.userCache = userCache;
+        this.itemViewCache = itemViewCache;
+        this.itemOccupancy = itemOccupancy;
     }
 
 
@@ -57,6 +70,7 @@ public class ItemServiceImpl implements ItemService {
         itemToSave.setOwner(user);
         itemToSave.setRequest(itemRequest);
         Item itemCreated = itemRepository.save(itemToSave);
+        itemSearch.index(itemCreated);
         log.info("Создали предмет с id{}", itemCreated.getId());
         return modelToDto(itemCreated);
     }
@@ -80,85 +94,122 @@ public class ItemServiceImpl implements ItemService {
             itemFromDb.setIsAvailable(itemToPatch.getIsAvailable());
         }
         Item itemUpdated = itemRepository.save(itemFromDb);
+        itemSearch.index(itemUpdated);
+        itemViewCache.evictView(itemUpdated.getId());
         log.info("Обновили данные предмета с id{}", itemUpdated.getId());
         return modelToDto(itemUpdated);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemDtoWithBookingsAndComments getItemById(long userId, long itemId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        ItemViewCache.ItemView view = itemViewCache.getView(itemId, () -> loadItemView(itemId));
+        ItemDtoWithBookingsAndComments cached = view.getItem();
+        ItemDtoWithBookingsAndComments.ItemDtoWithBookingsAndCommentsBuilder item = ItemDtoWithBookingsAndComments
+                .builder()
+                .id(cached.getId())
+                .name(cached.getName())
+                .description(cached.getDescription())
+                .available(cached.getAvailable())
+                .comments(cached.getComments()
+                        .stream()
+                        .map(comment -> CommentDtoToReturn.builder()
+                                .id(comment.getId())
+                                .text(comment.getText())
+                                .authorName(comment.getAuthorName())
+                                .created(comment.getCreated())
+                                .build())
+                        .collect(Collectors.toList()));
+        if (view.getOwnerId() != userId) {
+            return item.build();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ItemViewCache.OwnerBookings bookings = itemViewCache.getBookings(itemId, now,
+                () -> loadOwnerBookings(itemId, now));
+        return item
+                .lastBooking(copy(bookings.getLastBooking()))
+                .nextBooking(copy(bookings.getNextBooking()))
+                .build();
+    }
+
+    private static BookingDtoForItemHost copy(BookingDtoForItemHost booking) {
+        if (booking == null) {
+            return null;
+        }
+        return BookingDtoForItemHost.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .bookerId(booking.getBookerId())
+                .build();
+    }
+
+    private ItemViewCache.ItemView loadItemView(long itemId) {
         Item itemFound = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Item not found"));
         List<CommentDtoToReturn> itemComments = commentRepository.findAllByItem(itemId)
                 .stream()
                 .map(x -> modelToDto(x))
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
         ItemDtoWithBookingsAndComments dtoToReturn = modelToDtoWithBookings(itemFound);
         dtoToReturn.setComments(itemComments);
-        if (itemFound.getOwner().getId() == userId) {
-            List<Booking> itemBookings = bookingRepository.findAllBookingsByItemId(itemId);
-            if (itemBookings.size() >= 1) {
-                BookingDtoForItemHost lastBooking = itemBookings.stream().filter(x -> x.getStart().isBefore(LocalDateTime.now()))
-                        .sorted(Comparator.comparing(Booking::getEnd).reversed())
-                        .findFirst().map(x -> modelToDtoForItem(x))
-                        .orElse(null);
-
-                BookingDtoForItemHost nextBooking = itemBookings.stream().filter(x -> x.getStart().isAfter(LocalDateTime.now()))
-                        .sorted(Comparator.comparing(Booking::getStart))
-                        .findFirst().map(x -> modelToDtoForItem(x))
-                        .orElse(null);
-                dtoToReturn.setLastBooking(lastBooking);
-                dtoToReturn.setNextBooking(nextBooking);
-            }
-        }
-        return dtoToReturn;
+        return new ItemViewCache.ItemView(itemFound.getOwner().getId(), dtoToReturn);
+    }
+
+    private ItemViewCache.OwnerBookings loadOwnerBookings(long itemId, LocalDateTime now) {
+        BookingDtoForItemHost lastBooking = bookingRepository
+                .findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemId, BookingStatus.APPROVED, now)
+                .map(x -> modelToDtoForItem(x))
+                .orElse(null);
+        BookingDtoForItemHost nextBooking = bookingRepository
+                .findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(itemId, BookingStatus.APPROVED, now)
+                .map(x -> modelToDtoForItem(x))
+                .orElse(null);
+        return new ItemViewCache.OwnerBookings(lastBooking, nextBooking);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemDtoWithBookingsAndComments> getOwnerItems(long userId, Integer from, Integer size) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
         int page = from / size;
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
-        Page<Item> userItems = itemRepository.findAllByOwnerIdOrderByIdAsc(userId, pageable);
+        Slice<Item> userItems = itemRepository.findAllByOwnerIdOrderByIdAsc(userId, pageable);
 
         List<Long> itemsIds = userItems.stream()
                 .map(x -> x.getId())
                 .collect(Collectors.toList());
 
-        Map<Long, List<CommentDtoToReturn>> comments = new HashMap<>();
+        List<ItemDtoWithBookingsAndComments> result = new ArrayList<>();
+        if (itemsIds.isEmpty()) {
+            return result;
+        }
 
-        Map<Long, List<Booking>> bookings = new HashMap<>();
+        Map<Long, List<CommentDtoToReturn>> comments = commentRepository.findAllByItemIdIn(itemsIds)
+                .stream()
+                .collect(Collectors.groupingBy(x -> x.getItem().getId(),
+                        Collectors.mapping(x -> modelToDto(x), Collectors.toList())));
 
-        for (Long itemsId : itemsIds) {
-            List<CommentDtoToReturn> itemComments = commentRepository.findAllByItem(itemsId)
-                    .stream()
-                    .map(x -> modelToDto(x))
-                    .collect(Collectors.toList());
-            comments.put(itemsId, itemComments);
-            List<Booking> itemBookings = bookingRepository.findAllBookingsByItemId(itemsId);
-            bookings.put(itemsId, itemBookings);
-        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingDtoForItemHost> lastBookings = bookingRepository.findLastBookingsByItemIdIn(itemsIds, now)
+                .stream()
+                .collect(Collectors.toMap(x -> x.getItem().getId(), x -> modelToDtoForItem(x), (x, y) -> x));
+
+        Map<Long, BookingDtoForItemHost> nextBookings = bookingRepository.findNextBookingsByItemIdIn(itemsIds, now)
+                .stream()
+                .collect(Collectors.toMap(x -> x.getItem().getId(), x -> modelToDtoForItem(x), (x, y) -> x));
 
-        List<ItemDtoWithBookingsAndComments> result = new ArrayList<>();
         for (Item userItem : userItems) {
             ItemDtoWithBookingsAndComments dtoToReturn = modelToDtoWithBookings(userItem);
-            List<Booking> itemBookings = bookings.get(userItem.getId());
-            List<CommentDtoToReturn> itemComments = comments.get(userItem.getId());
+            List<CommentDtoToReturn> itemComments = comments.getOrDefault(userItem.getId(), new ArrayList<>());
             dtoToReturn.setComments(itemComments);
-            if (!itemBookings.isEmpty()) {
-                BookingDtoForItemHost lastBooking = itemBookings.stream().filter(x -> x.getStart().isBefore(LocalDateTime.now()))
-                        .sorted(Comparator.comparing(Booking::getEnd).reversed())
-                        .findFirst().map(x -> modelToDtoForItem(x))
-                        .orElse(null);
-                BookingDtoForItemHost nextBooking = itemBookings.stream().filter(x -> x.getStart().isAfter(LocalDateTime.now()))
-                        .sorted(Comparator.comparing(Booking::getStart))
-                        .findFirst().map(x -> modelToDtoForItem(x))
-                        .orElse(null);
-                dtoToReturn.setLastBooking(lastBooking);
-                dtoToReturn.setNextBooking(nextBooking);
-            }
+            dtoToReturn.setLastBooking(lastBookings.get(userItem.getId()));
+            dtoToReturn.setNextBooking(nextBookings.get(userItem.getId()));
             result.add(dtoToReturn);
         }
 
@@ -167,13 +218,22 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> searchAvailableItems(long userId, String text, Integer from, Integer size) {
+    public List<ItemDto> searchAvailableItems(long userId, String text, LocalDateTime start, LocalDateTime end,
+                                              Integer from, Integer size) {
+        if ((start == null) != (end == null)
+                || (start != null && (!end.isAfter(start) || start.isBefore(LocalDateTime.now())))) {
+            throw new ValidationException("Not valid start and end date");
+        }
         if (text.isBlank()) return new ArrayList<ItemDto>();
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
         int page = from / size;
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
-        List<ItemDto> availableItems = itemRepository.findAllByText(text.toLowerCase(), pageable)
+        List<Item> found = start == null
+                ? itemSearch.search(text, pageable)
+                : itemSearch.searchFree(text, start, end, pageable);
+        List<ItemDto> availableItems = found
                 .stream()
                 .map(x -> modelToDto(x))
                 .collect(Collectors.toList());
@@ -181,6 +241,38 @@ public class ItemServiceImpl implements ItemService {
         return availableItems;
     }
 
+    @Override
+    public ItemAvailability getAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (!to.isAfter(from) || !to.isAfter(now)) {
+            throw new ValidationException("Not valid from and to date");
+        }
+        if (!itemViewCache.containsView(itemId) && !itemRepository.existsById(itemId)) {
+            throw new ItemNotFoundException("Item not found");
+        }
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        List<TimeRange> busy = new ArrayList<>();
+        List<TimeRange> free = new ArrayList<>();
+        if (start.isBefore(to)) {
+            busy = itemOccupancy.busy(itemId, start, to);
+            LocalDateTime freeStart = start;
+            for (TimeRange range : busy) {
+                if (range.getStart().isAfter(freeStart)) {
+                    free.add(new TimeRange(freeStart, range.getStart()));
+                }
+                freeStart = range.getEnd();
+            }
+            if (freeStart.isBefore(to)) {
+                free.add(new TimeRange(freeStart, to));
+            }
+        }
+        log.info("Получили календарь занятости предмета с id{}", itemId);
+        return new ItemAvailability(itemId, start, to, busy, free);
+    }
+
     @Override
     @Transactional
     public CommentDtoToReturn addComment(long userId, long itemId, CommentDtoToCreate dtoToCreate) {
@@ -190,7 +282,7 @@ public class ItemServiceImpl implements ItemService {
         Item itemFound = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Item not found"));
 
-        List<Booking> booking = bookingRepository.findAllByBookerIdAndItemIdAndEndBefore(itemId, userId, LocalDateTime.now());
+        List<BookingHistory> booking = bookingRepository.findAllByBookerIdAndItemIdAndEndBefore(itemId, userId, LocalDateTime.now());
 
         if (booking.size() == 0) {
             throw new ValidationException("User haven't booked this item");
@@ -201,6 +293,13 @@ public class ItemServiceImpl implements ItemService {
         commentToSave.setCreated(LocalDateTime.now());
 
         Comment comment = commentRepository.save(commentToSave);
+        itemViewCache.evictView(itemId);
         return modelToDto(comment);
     }
+
+    @Override
+    public void rebuildSearchIndex() {
+        itemSearch.rebuild();
+        log.info("Перестроили поисковый индекс предметов");
+    }
 }
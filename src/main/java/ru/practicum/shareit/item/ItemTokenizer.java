@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemTokenizer {
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return Arrays.stream(SEPARATOR.split(text.toLowerCase()))
+                .filter(x -> !x.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+}
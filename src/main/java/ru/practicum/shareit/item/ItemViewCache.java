@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingDtoForItemHost;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Component
+public class ItemViewCache {
+
+    public static final String ITEMS = "items";
+
+    public static final String ITEM_BOOKINGS = "item-bookings";
+
+    private final CacheManager cacheManager;
+
+    public ItemViewCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public ItemView getView(long itemId, Supplier<ItemView> loader) {
+        return load(ITEMS, itemId, loader);
+    }
+
+    public boolean containsView(long itemId) {
+        Cache cache = cacheManager.getCache(ITEMS);
+        return cache != null && cache.get(itemId) != null;
+    }
+
+    public OwnerBookings getBookings(long itemId, LocalDateTime now, Supplier<OwnerBookings> loader) {
+        OwnerBookings bookings = load(ITEM_BOOKINGS, itemId, loader);
+        if (!bookings.isValidAt(now)) {
+            Cache cache = cacheManager.getCache(ITEM_BOOKINGS);
+            if (cache != null) {
+                cache.evict(itemId);
+            }
+            bookings = load(ITEM_BOOKINGS, itemId, loader);
+        }
+        return bookings;
+    }
+
+    private <T> T load(String name, long itemId, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return loader.get();
+        }
+        try {
+            return cache.get(itemId, loader::get);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public void evictView(long itemId) {
+        afterCommit(ITEMS, cache -> cache.evict(itemId));
+    }
+
+    public void evictBookings(long itemId) {
+        afterCommit(ITEM_BOOKINGS, cache -> cache.evict(itemId));
+    }
+
+    public void evictAll() {
+        afterCommit(ITEMS, Cache::clear);
+        afterCommit(ITEM_BOOKINGS, Cache::clear);
+    }
+
+    private void afterCommit(String name, Consumer<Cache> eviction) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return;
+        }
+        AfterCommit.run(() -> eviction.accept(cache));
+    }
+
+    @Getter
+    public static class ItemView {
+
+        private final long ownerId;
+
+        private final ItemDtoWithBookingsAndComments item;
+
+        public ItemView(long ownerId, ItemDtoWithBookingsAndComments item) {
+            this.ownerId = ownerId;
+            this.item = item;
+        }
+    }
+
+    @Getter
+    public static class OwnerBookings {
+
+        private final BookingDtoForItemHost lastBooking;
+
+        private final BookingDtoForItemHost nextBooking;
+
+        public OwnerBookings(BookingDtoForItemHost lastBooking, BookingDtoForItemHost nextBooking) {
+            this.lastBooking = lastBooking;
+            this.nextBooking = nextBooking;
+        }
+
+        boolean isValidAt(LocalDateTime now) {
+            return nextBooking == null || now.isBefore(nextBooking.getStart());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@Endpoint(id = "searchindex")
+@Slf4j
+public class SearchIndexEndpoint {
+
+    public static final String STATUS = "status";
+
+    private final ItemService itemService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SearchIndexEndpoint(ItemService itemService) {
+        this.itemService = itemService;
+    }
+
+    @ReadOperation
+    public Map<String, String> status() {
+        return Map.of(STATUS, running.get() ? "running" : "idle");
+    }
+
+    @WriteOperation
+    public Map<String, String> rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            return Map.of(STATUS, "running");
+        }
+        executor.execute(() -> {
+            try {
+                itemService.rebuildSearchIndex();
+            } catch (RuntimeException e) {
+                log.error("Не удалось перестроить поисковый индекс", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return Map.of(STATUS, "started");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryCounter.statementPrepared();
+        return sql;
+    }
+}
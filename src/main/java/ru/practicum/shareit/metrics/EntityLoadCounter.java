@@ -0,0 +1,26 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+@Component
+public class EntityLoadCounter implements PostLoadEventListener {
+
+    public EntityLoadCounter(EntityManagerFactory entityManagerFactory) {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestQueryCounter.entityLoaded();
+    }
+}
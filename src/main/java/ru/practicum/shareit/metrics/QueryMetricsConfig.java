@@ -0,0 +1,29 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class QueryMetricsConfig implements WebMvcConfigurer {
+
+    private final QueryMetricsInterceptor queryMetricsInterceptor;
+
+    public QueryMetricsConfig(QueryMetricsInterceptor queryMetricsInterceptor) {
+        this.queryMetricsInterceptor = queryMetricsInterceptor;
+    }
+
+    @Bean
+    public static HibernatePropertiesCustomizer countingStatementInspector() {
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR,
+                new CountingStatementInspector());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryMetricsInterceptor);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Component
+public class QueryMetricsInterceptor implements HandlerInterceptor {
+
+    public static final String STATEMENTS_METRIC = "shareit.http.sql.statements";
+
+    public static final String ENTITIES_METRIC = "shareit.http.entities.loaded";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public QueryMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestQueryCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            summary(registry, STATEMENTS_METRIC, "statements", request.getMethod(), uri)
+                    .record(RequestQueryCounter.statements());
+            summary(registry, ENTITIES_METRIC, "entities", request.getMethod(), uri)
+                    .record(RequestQueryCounter.entities());
+        }
+        RequestQueryCounter.clear();
+    }
+
+    private DistributionSummary summary(MeterRegistry registry, String name, String unit, String method,
+                                        String uri) {
+        return DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
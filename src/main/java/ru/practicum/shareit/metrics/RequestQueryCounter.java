@@ -0,0 +1,39 @@
+package ru.practicum.shareit.metrics;
+
+public final class RequestQueryCounter {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+    private static final int STATEMENTS = 0;
+
+    private static final int ENTITIES = 1;
+
+    private RequestQueryCounter() {
+    }
+
+    public static void reset() {
+        long[] counts = COUNTS.get();
+        counts[STATEMENTS] = 0;
+        counts[ENTITIES] = 0;
+    }
+
+    public static void clear() {
+        COUNTS.remove();
+    }
+
+    public static void statementPrepared() {
+        COUNTS.get()[STATEMENTS]++;
+    }
+
+    public static void entityLoaded() {
+        COUNTS.get()[ENTITIES]++;
+    }
+
+    public static long statements() {
+        return COUNTS.get()[STATEMENTS];
+    }
+
+    public static long entities() {
+        return COUNTS.get()[ENTITIES];
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "shareit.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryDataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourceProxy(ObjectProvider<SlowQueryProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(new SlowQueryListener(properties.getObject()))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final String APP_PACKAGE = "ru.practicum.shareit.";
+
+    private static final String METRICS_PACKAGE = APP_PACKAGE + "metrics.";
+
+    private final long thresholdMillis;
+
+    private final double sampleRate;
+
+    public SlowQueryListener(SlowQueryProperties properties) {
+        this.thresholdMillis = properties.getThreshold().toMillis();
+        this.sampleRate = properties.getSampleRate();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        if (elapsed >= thresholdMillis) {
+            log.warn("Медленный запрос {} мс из {}: {}", elapsed, caller(), sql(queryInfoList));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Запрос {} мс из {}: {}", elapsed, caller(), sql(queryInfoList));
+        }
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                .map(QueryInfo::getQuery)
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().startsWith(METRICS_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(APP_PACKAGE.length()) + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+}
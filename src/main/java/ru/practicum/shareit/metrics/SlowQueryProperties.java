@@ -0,0 +1,19 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+
+    private Duration threshold = Duration.ofMillis(200);
+
+    private double sampleRate = 0.0;
+}
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class ItemRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_id_seq")
+    @SequenceGenerator(name = "requests_id_seq", sequenceName = "requests_id_seq", allocationSize = 50)
     private long id;
 
     @Column
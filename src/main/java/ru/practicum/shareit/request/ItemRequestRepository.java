@@ -1,11 +1,12 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,5 +17,8 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     @Query("select ir " +
             "from ItemRequest as ir " +
             "where ir.requestor.id <> ?1")
-    Page<ItemRequest> findAllUserRequest(long userId, Pageable pageable);
+    Slice<ItemRequest> findAllUserRequest(long userId, Pageable pageable);
+
+    @Query("select ir.id from ItemRequest as ir where ir.id in ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
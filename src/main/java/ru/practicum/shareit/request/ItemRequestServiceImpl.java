@@ -11,6 +11,7 @@ import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.util.ArrayList;
@@ -30,11 +31,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository, UserRepository userRepository) {
+    public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository, UserRepository userRepository, UserCache userCache) {
         this.itemRequestRepository = itemRequestRepository;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     @Override
@@ -51,8 +54,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getUserRequests(long userId) {
-        User userFound = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
         List<ItemRequestDto> itemRequests = itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(userId)
                 .stream()
                 .map(x -> modelToDto(x))
@@ -82,8 +86,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getOtherUsersRequests(long userId, int from, int size) {
-        User userFound = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
         int page = from / size;
         Pageable pageable = PageRequest.of(page, size, Sort.by("created").ascending());
         List<ItemRequestDto> pagedResult = itemRequestRepository.findAllUserRequest(userId, pageable)
@@ -109,8 +114,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestDto getRequestById(long userId, long requestId) {
-        User userFound = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RequestNotFound("Request not found"));
         List<ItemDto> items = itemRepository.findAllByRequestId(itemRequest.getId())
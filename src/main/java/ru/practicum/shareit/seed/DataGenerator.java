@@ -0,0 +1,173 @@
+package ru.practicum.shareit.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@Component
+@Slf4j
+public class DataGenerator {
+
+    private static final String[] WORDS = {"drill", "saw", "ladder", "hammer", "tent", "bicycle", "scooter",
+            "screwdriver", "projector", "kayak", "camera", "mixer", "grill", "boat", "trailer", "guitar"};
+
+    private static final String[] ADJECTIVES = {"cordless", "electric", "folding", "heavy", "compact", "portable",
+            "old", "new", "professional", "kids"};
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DataGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void generate(SeedProperties properties) {
+        Random random = new Random(properties.getSeed());
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        int batchSize = properties.getBatchSize();
+
+        long userOffset = maxId("users");
+        long requestOffset = maxId("requests");
+        long itemOffset = maxId("items");
+        long bookingOffset = Math.max(maxId("bookings"), maxId("bookings_archive"));
+        long commentOffset = maxId("comments");
+
+        int users = properties.getUsers();
+        Batch userBatch = new Batch("insert into users (id, name, email) values (?, ?, ?)", batchSize);
+        for (int i = 1; i <= users; i++) {
+            long id = userOffset + i;
+            userBatch.add(id, "User" + id, "user" + id + "@seed.shareit.ru");
+        }
+        userBatch.flush();
+
+        int requests = properties.getRequests();
+        Batch requestBatch = new Batch("insert into requests (id, description, requestor_id, created) " +
+                "values (?, ?, ?, ?)", batchSize);
+        for (int i = 1; i <= requests; i++) {
+            requestBatch.add(requestOffset + i, "Need a " + word(random), userOffset + 1 + random.nextInt(users),
+                    Timestamp.valueOf(now.minusMinutes(random.nextInt((int) (properties.getPastDays() * MINUTES_PER_DAY)))));
+        }
+        requestBatch.flush();
+
+        int items = properties.getItems();
+        int[] itemOwners = new int[items];
+        ZipfSampler owners = new ZipfSampler(users, properties.getOwnerSkew());
+        Batch itemBatch = new Batch("insert into items (id, name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?, ?)", batchSize);
+        for (int i = 0; i < items; i++) {
+            itemOwners[i] = owners.next(random);
+            String word = word(random);
+            Long requestId = requests > 0 && random.nextInt(10) == 0 ? requestOffset + 1 + random.nextInt(requests) : null;
+            itemBatch.add(itemOffset + i + 1, Character.toUpperCase(word.charAt(0)) + word.substring(1) + " " + (i + 1),
+                    ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + word, random.nextInt(5) != 0,
+                    userOffset + 1 + itemOwners[i], requestId);
+        }
+        itemBatch.flush();
+
+        long[] lastApprovedEnd = new long[items];
+        long firstMinute = -properties.getPastDays() * MINUTES_PER_DAY;
+        long span = (properties.getPastDays() + properties.getFutureDays()) * MINUTES_PER_DAY;
+        ZipfSampler hotItems = new ZipfSampler(items, properties.getItemSkew());
+        Batch bookingBatch = new Batch("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", batchSize);
+        Batch commentBatch = new Batch("insert into comments (id, text, item_id, author_id, created) " +
+                "values (?, ?, ?, ?, ?)", batchSize);
+        long comments = 0;
+        for (int i = 0; i < properties.getBookings(); i++) {
+            int item = hotItems.next(random);
+            long start = firstMinute + (long) (random.nextDouble() * span);
+            long end = start + 60 + (long) (-Math.log(1 - random.nextDouble()) * MINUTES_PER_DAY);
+            boolean past = end < 0;
+            String status = status(random, past);
+            if ("APPROVED".equals(status)) {
+                if (lastApprovedEnd[item] != 0 && start < lastApprovedEnd[item]) {
+                    status = past ? "REJECTED" : "WAITING";
+                } else {
+                    lastApprovedEnd[item] = end;
+                }
+            }
+            long booker = userOffset + 1 + booker(random, users, itemOwners[item]);
+            bookingBatch.add(bookingOffset + i + 1, Timestamp.valueOf(now.plusMinutes(start)),
+                    Timestamp.valueOf(now.plusMinutes(end)), itemOffset + item + 1, booker, status);
+            if (past && "APPROVED".equals(status) && random.nextDouble() < properties.getCommentRatio()) {
+                comments++;
+                commentBatch.add(commentOffset + comments, "Nice " + WORDS[random.nextInt(WORDS.length)],
+                        itemOffset + item + 1, booker, Timestamp.valueOf(now.plusMinutes(Math.min(end + 60, 0))));
+            }
+        }
+        bookingBatch.flush();
+        commentBatch.flush();
+
+        for (String table : List.of("users", "requests", "items", "comments")) {
+            restartSequence(table, maxId(table));
+        }
+        restartSequence("bookings", Math.max(maxId("bookings"), maxId("bookings_archive")));
+        log.info("Сгенерировали {} пользователей, {} запросов, {} предметов, {} бронирований, {} отзывов",
+                users, requests, items, properties.getBookings(), comments);
+    }
+
+    private static String status(Random random, boolean past) {
+        int roll = random.nextInt(10);
+        if (past) {
+            return roll < 7 ? "APPROVED" : roll < 9 ? "REJECTED" : "CANCELED";
+        }
+        return roll < 5 ? "APPROVED" : roll < 9 ? "WAITING" : "REJECTED";
+    }
+
+    private static int booker(Random random, int users, int owner) {
+        if (users == 1) {
+            return owner;
+        }
+        int booker = random.nextInt(users - 1);
+        return booker >= owner ? booker + 1 : booker;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private void restartSequence(String table, long maxId) {
+        jdbcTemplate.execute("alter sequence " + table + "_id_seq restart with " + (maxId + 1));
+    }
+
+    private class Batch {
+
+        private final String sql;
+
+        private final int size;
+
+        private final List<Object[]> rows;
+
+        Batch(String sql, int size) {
+            this.sql = sql;
+            this.size = size;
+            this.rows = new ArrayList<>(size);
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == size) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
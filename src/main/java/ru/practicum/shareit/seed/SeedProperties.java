@@ -0,0 +1,33 @@
+package ru.practicum.shareit.seed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.seed")
+public class SeedProperties {
+
+    private long seed = 42;
+
+    private int users = 10_000;
+
+    private int requests = 5_000;
+
+    private int items = 50_000;
+
+    private int bookings = 200_000;
+
+    private double commentRatio = 0.2;
+
+    private double ownerSkew = 1.1;
+
+    private double itemSkew = 1.2;
+
+    private int pastDays = 365;
+
+    private int futureDays = 90;
+
+    private int batchSize = 1_000;
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("seed")
+@EnableConfigurationProperties(SeedProperties.class)
+@Slf4j
+public class SeedRunner implements CommandLineRunner {
+
+    private final DataGenerator dataGenerator;
+
+    private final SeedProperties properties;
+
+    public SeedRunner(DataGenerator dataGenerator, SeedProperties properties) {
+        this.dataGenerator = dataGenerator;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(String... args) {
+        long started = System.currentTimeMillis();
+        dataGenerator.generate(properties);
+        log.info("Заполнили базу тестовыми данными за {} мс (seed {})",
+                System.currentTimeMillis() - started, properties.getSeed());
+    }
+}
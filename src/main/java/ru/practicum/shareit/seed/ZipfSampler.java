@@ -0,0 +1,27 @@
+package ru.practicum.shareit.seed;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int size, double skew) {
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1 / Math.pow(rank, skew);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    int next(Random random) {
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        int index = position >= 0 ? position : -position - 1;
+        return Math.min(index, cumulative.length - 1);
+    }
+}
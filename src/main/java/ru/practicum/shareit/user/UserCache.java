@@ -0,0 +1,45 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.util.function.Consumer;
+
+@Component
+public class UserCache {
+
+    public static final String USERS = "users";
+
+    private final UserRepository userRepository;
+
+    private final CacheManager cacheManager;
+
+    public UserCache(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    @Cacheable(cacheNames = USERS, unless = "!#result")
+    public boolean exists(long userId) {
+        return userRepository.existsById(userId);
+    }
+
+    public void evict(long userId) {
+        afterCommit(cache -> cache.evict(userId));
+    }
+
+    public void evictAll() {
+        afterCommit(Cache::clear);
+    }
+
+    private void afterCommit(Consumer<Cache> eviction) {
+        Cache cache = cacheManager.getCache(USERS);
+        if (cache == null) {
+            return;
+        }
+        AfterCommit.run(() -> eviction.accept(cache));
+    }
+}
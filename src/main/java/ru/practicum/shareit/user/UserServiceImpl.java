@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.ItemViewCache;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,10 +18,14 @@ import static ru.practicum.shareit.user.UserMapper.modelToDto;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ItemViewCache itemViewCache;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserCache userCache, ItemViewCache itemViewCache) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.itemViewCache = itemViewCache;
     }
 
     @Override
@@ -57,10 +62,16 @@ public class UserServiceImpl implements UserService {
         if (userDto.getEmail() != null && !userDto.getEmail().isBlank()) {
             userFromDb.setEmail(userDto.getEmail());
         }
+        boolean renamed = false;
         if (userDto.getName() != null && !userDto.getName().isBlank()) {
+            renamed = !userDto.getName().equals(userFromDb.getName());
             userFromDb.setName(userDto.getName());
         }
         User userUpdated = userRepository.save(userFromDb);
+        userCache.evict(userId);
+        if (renamed) {
+            itemViewCache.evictAll();
+        }
         log.info("Обновили данные пользователя с id{}", userUpdated.getId());
         return modelToDto(userUpdated);
     }
@@ -69,6 +80,8 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void deleteUserById(long userId) {
         userRepository.deleteById(userId);
+        userCache.evict(userId);
+        itemViewCache.evictAll();
         log.info("Удалили пользователя с id{}", userId);
     }
 
@@ -76,6 +89,8 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void deleteUsers() {
         userRepository.deleteAll();
+        userCache.evictAll();
+        itemViewCache.evictAll();
         log.info("Удалили всех пользователей");
     }
 }
@@ -0,0 +1,13 @@
+create index if not exists items_search_index
+    on items using gin (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, '')));
+
+create extension if not exists btree_gist;
+
+alter table bookings
+    add constraint bookings_approved_no_overlap
+        exclude using gist (item_id with =, tstzrange(start_date, end_date) with &&)
+        where (status = 'APPROVED');
+
+create index if not exists bookings_item_id_period_index
+    on bookings using gist (item_id, tstzrange(start_date, end_date))
+    where (status in ('WAITING', 'APPROVED'));
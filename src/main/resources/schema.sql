@@ -1,12 +1,23 @@
-drop table if exists items, bookings, users,  requests, comments cascade ;
+drop table if exists items, bookings, bookings_archive, users,  requests, comments cascade ;
 drop type if exists booking_status cascade;
+drop sequence if exists users_id_seq;
+drop sequence if exists requests_id_seq;
+drop sequence if exists items_id_seq;
+drop sequence if exists bookings_id_seq;
+drop sequence if exists comments_id_seq;
+
+create sequence if not exists users_id_seq increment by 50;
+create sequence if not exists requests_id_seq increment by 50;
+create sequence if not exists items_id_seq increment by 50;
+create sequence if not exists bookings_id_seq increment by 50;
+create sequence if not exists comments_id_seq increment by 50;
 
 create type  booking_status as enum ('WAITING', 'APPROVED', 'REJECTED', 'CANCELED');
 
 
 create table if not exists users
 (
-    id    serial
+    id    integer default nextval('users_id_seq')
         constraint users_pk
             primary key,
     name  varchar(50) not null,
@@ -15,16 +26,9 @@ create table if not exists users
 );
 
 
-
-create unique index if not exists users_email_uindex
-    on users (email);
-
-create unique index if not exists users_id_uindex
-    on users (id);
-
 create table if not exists requests
 (
-    id           serial
+    id           integer default nextval('requests_id_seq')
         constraint requests_pk
             primary key,
     description  varchar(500) not null,
@@ -35,13 +39,9 @@ create table if not exists requests
 );
 
 
-
-create unique index if not exists requests_id_uindex
-    on requests (id);
-
 create table if not exists items
 (
-    id           serial
+    id           integer default nextval('items_id_seq')
         constraint items_pk
             primary key,
     name         varchar(50) not null,
@@ -59,12 +59,12 @@ create table if not exists items
 
 
 
-create unique index if not exists items_id_uindex
-    on items (id);
+create index if not exists items_owner_id_index
+    on items (owner_id);
 
 create table if not exists bookings
 (
-    id         serial
+    id         integer default nextval('bookings_id_seq')
         constraint bookings_pk
             primary key,
     start_date timestamp with time zone not null,
@@ -82,12 +82,48 @@ create table if not exists bookings
 
 
 
-create unique index if not exists bookings_id_uindex
-    on bookings (id);
+create index if not exists bookings_booker_id_start_date_index
+    on bookings (booker_id, start_date desc);
+
+create index if not exists bookings_booker_id_status_start_date_index
+    on bookings (booker_id, status, start_date);
+
+create index if not exists bookings_item_id_start_date_index
+    on bookings (item_id, start_date);
+
+create index if not exists bookings_item_id_status_start_date_index
+    on bookings (item_id, status, start_date);
+
+create table if not exists bookings_archive
+(
+    id         integer                  not null
+        constraint bookings_archive_pk
+            primary key,
+    start_date timestamp with time zone not null,
+    end_date   timestamp with time zone not null,
+    item_id    integer                  not null
+        constraint bookings_archive_items_id_fk
+            references items
+            on delete cascade,
+    booker_id  integer                  not null
+        constraint bookings_archive_users_id_fk
+            references users
+            on delete cascade,
+    status     varchar(50)              not null
+);
+
+create index if not exists bookings_archive_booker_id_start_date_index
+    on bookings_archive (booker_id, start_date desc);
+
+create index if not exists bookings_archive_item_id_start_date_index
+    on bookings_archive (item_id, start_date);
+
+create index if not exists bookings_end_date_index
+    on bookings (end_date);
 
 create table if not exists comments
 (
-    id        serial
+    id        integer default nextval('comments_id_seq')
         constraint comments_pk
             primary key,
     text      varchar(500) not null,
@@ -103,8 +139,6 @@ create table if not exists comments
 );
 
 
-create unique index if not exists comments_id_uindex
-    on comments (id);
 
 
 
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles(profiles = {"ci,test"})
+@DataJpaTest(
+        properties = {
+                "spring.jpa.properties.javax.persistence.validation.mode=none",
+                "shareit.archive.enabled=true",
+                "shareit.archive.horizon=30d",
+                "shareit.archive.batch-size=2"
+        }
+)
+@Import(BookingArchiver.class)
+@Transactional
+class BookingArchiverTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingArchiver underTest;
+
+    private User owner;
+
+    private User booker;
+
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("Username2")
+                .email("Useremail2@yandex.ru")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void itShouldMoveOldFinishedBookingsToArchive() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Booking oldApproved = save(now.minusDays(100), now.minusDays(99), BookingStatus.APPROVED);
+        Booking oldRejected = save(now.minusDays(90), now.minusDays(89), BookingStatus.REJECTED);
+        Booking oldCanceled = save(now.minusDays(80), now.minusDays(79), BookingStatus.CANCELED);
+        Booking oldWaiting = save(now.minusDays(70), now.minusDays(69), BookingStatus.WAITING);
+        Booking recent = save(now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        bookingRepository.flush();
+        // When
+        underTest.archive();
+        // Then
+        assertThat(jdbcTemplate.queryForList("select id from bookings order by id", Long.class))
+                .containsExactly(oldWaiting.getId(), recent.getId());
+        assertThat(jdbcTemplate.queryForList("select id from bookings_archive order by id", Long.class))
+                .containsExactly(oldApproved.getId(), oldRejected.getId(), oldCanceled.getId());
+    }
+
+    @Test
+    void itShouldKeepArchivedBookingsInHistoryQueries() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Booking archived = save(now.minusDays(100), now.minusDays(99), BookingStatus.APPROVED);
+        Booking recent = save(now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        Booking future = save(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        bookingRepository.flush();
+        // When
+        underTest.archive();
+        // Then
+        List<BookingDtoShort> past = bookingRepository
+                .findAllPastBookingsByUser(booker.getId(), now, PageRequest.of(0, 10)).getContent();
+        assertThat(past).extracting(BookingDtoShort::getId).containsExactly(recent.getId(), archived.getId());
+        List<BookingDtoShort> all = bookingRepository
+                .findAllItemsBookings(owner.getId(), PageRequest.of(0, 10)).getContent();
+        assertThat(all).extracting(BookingDtoShort::getId)
+                .containsExactly(future.getId(), recent.getId(), archived.getId());
+        assertThat(bookingRepository.findAllByBookerIdAndItemIdAndEndBefore(item.getId(), booker.getId(), now))
+                .hasSize(2);
+        assertThat(bookingRepository.findById(archived.getId())).isEmpty();
+        assertThat(bookingRepository.findHistoryById(archived.getId()))
+                .hasValueSatisfying(booking -> assertThat(booking.getStatus()).isEqualTo(BookingStatus.APPROVED));
+    }
+
+    @Test
+    void itShouldKeepLatestApprovedBookingOfItem() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Booking older = save(now.minusDays(100), now.minusDays(99), BookingStatus.APPROVED);
+        Booking latest = save(now.minusDays(90), now.minusDays(89), BookingStatus.APPROVED);
+        save(now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        bookingRepository.flush();
+        // When
+        underTest.archive();
+        // Then
+        assertThat(jdbcTemplate.queryForList("select id from bookings_archive order by id", Long.class))
+                .containsExactly(older.getId());
+        assertThat(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                BookingStatus.APPROVED, now)).hasValueSatisfying(booking ->
+                assertThat(booking.getId()).isEqualTo(latest.getId()));
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build());
+    }
+}
@@ -9,24 +9,41 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
+@Import(BookingStatusHub.class)
 class BookingControllerTest {
 
     @Autowired
@@ -35,6 +52,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @Autowired
+    private BookingStatusHub bookingStatusHub;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     @BeforeEach
@@ -89,6 +109,264 @@ class BookingControllerTest {
 
     }
 
+    @SneakyThrows
+    @Test
+    void itShouldCreateBookingsBatch() {
+        // Given
+        BookingDtoToCreate first = BookingDtoToCreate.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusMinutes(10))
+                .end(LocalDateTime.now().plusMinutes(30))
+                .build();
+
+        BookingDtoToCreate second = BookingDtoToCreate.builder()
+                .itemId(99L)
+                .start(LocalDateTime.now().plusMinutes(10))
+                .end(LocalDateTime.now().plusMinutes(30))
+                .build();
+
+        BookingDto created = BookingDto.builder()
+                .id(1L)
+                .start(first.getStart())
+                .end(first.getEnd())
+                .item(new Item())
+                .booker(new User())
+                .build();
+
+        // When
+        when(bookingService.createBookings(anyLong(), anyList())).thenReturn(List.of(
+                BookingBatchResult.created(0, created),
+                BookingBatchResult.failed(1, "Item not found")));
+        // Then
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-id", 2)
+                        .content(mapper.writeValueAsString(List.of(first, second)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].booking.id", is(1L), Long.class))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].error", is("Item not found")));
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldApproveBookingsBatch() {
+        // Given
+        // When
+        when(bookingService.approveBookings(1L, List.of(1L, 2L), true)).thenReturn(List.of(
+                new BookingDecisionResult(1L, BookingDecisionOutcome.APPROVED),
+                new BookingDecisionResult(2L, BookingDecisionOutcome.NOT_OWNER)));
+        // Then
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-id", 1)
+                        .param("approved", "true")
+                        .content("[1,2]")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].outcome", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2)))
+                .andExpect(jsonPath("$[1].outcome", is("NOT_OWNER")));
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldStreamBookingStatusChanges() {
+        // Given
+        BookingDto booking = BookingDto.builder()
+                .id(1L)
+                .status(BookingStatus.WAITING)
+                .build();
+        when(bookingService.getBooking(2L, 1L)).thenReturn(booking);
+        MvcResult result = mockMvc.perform(get("/bookings/1/events")
+                        .header("X-Sharer-User-id", 2)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // When
+        bookingStatusHub.onBookingChanged(new BookingChangedEvent(1L, 1L, 1L, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(1), BookingStatus.WAITING, BookingStatus.APPROVED));
+        bookingStatusHub.onBookingChanged(new BookingChangedEvent(5L, 1L, 1L, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(1), BookingStatus.WAITING, BookingStatus.REJECTED));
+        // Then
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.getResponse().getContentAsString().contains("APPROVED")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        String events = result.getResponse().getContentAsString();
+        assertThat(events).contains("event:status");
+        assertThat(events.indexOf("WAITING")).isLessThan(events.indexOf("APPROVED"));
+        assertThat(events).doesNotContain("REJECTED");
+        deadline = System.currentTimeMillis() + 5000;
+        while (bookingStatusHub.countSubscribers(1L) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(bookingStatusHub.countSubscribers(1L)).isZero();
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldNotStreamBookingStatusForStranger() {
+        // Given
+        when(bookingService.getBooking(3L, 7L)).thenThrow(new UserNotFoundException("Data is available for booker or " +
+                "for item owner"));
+        // When
+        // Then
+        mockMvc.perform(get("/bookings/7/events")
+                        .header("X-Sharer-User-id", 3)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error", is("Object not found")));
+        assertThat(bookingStatusHub.countSubscribers(7L)).isZero();
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldGetOwnerBookingsSummary() {
+        // Given
+        Map<State, Long> summary = new EnumMap<>(State.class);
+        summary.put(State.WAITING, 3L);
+        summary.put(State.PAST, 7L);
+        // When
+        when(bookingService.getOwnerSummary(1L)).thenReturn(summary);
+        // Then
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.WAITING", is(3)))
+                .andExpect(jsonPath("$.PAST", is(7)));
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldExportBookingsAsNdjson() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        BookingDtoShort first = new BookingDtoShort(2L, start, start.plusHours(1), BookingStatus.WAITING,
+                1L, "Drill", 3L);
+        BookingDtoShort second = new BookingDtoShort(1L, start.minusDays(1), start.minusDays(1).plusHours(1),
+                BookingStatus.APPROVED, 1L, "Drill", 3L);
+
+        // When
+        doAnswer(invocation -> {
+            Consumer<BookingDtoShort> consumer = invocation.getArgument(2);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(bookingService).exportBookings(eq(3L), eq(false), any());
+        // Then
+        String body = mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-id", 3))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("application/x-ndjson")))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":2", "\"name\":\"Drill\"", "\"status\":\"WAITING\"");
+        assertThat(lines[1]).contains("\"id\":1", "\"status\":\"APPROVED\"");
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldExportOwnerBookingsAsCsv() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        BookingDtoShort booking = new BookingDtoShort(2L, start, start.plusHours(1), BookingStatus.WAITING,
+                1L, "Drill, \"pro\"", 3L);
+
+        // When
+        doAnswer(invocation -> {
+            Consumer<BookingDtoShort> consumer = invocation.getArgument(2);
+            consumer.accept(booking);
+            return null;
+        }).when(bookingService).exportBookings(eq(1L), eq(true), any());
+        // Then
+        mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-id", 1)
+                        .param("owner", "true")
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(BookingExportWriter.CSV_HEADER + "\n" +
+                        "2,2030-01-01T10:00,2030-01-01T11:00,WAITING,1,\"Drill, \"\"pro\"\"\",3\n"));
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldNotExportBookingsWhenUserNotFound() {
+        // Given
+        // When
+        doThrow(new UserNotFoundException("User not found"))
+                .when(bookingService).exportBookings(eq(1L), eq(false), any());
+        // Then
+        mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-id", 1)
+                        .param("format", "csv"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string(not(containsString(BookingExportWriter.CSV_HEADER))));
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldNotExportBookingsInUnknownFormat() {
+        // Given
+        // When
+        // Then
+        mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-id", 1)
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldRejectBookingsBatchWithPastStart() {
+        // Given
+        BookingDtoToCreate valid = BookingDtoToCreate.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().plusMinutes(10))
+                .end(LocalDateTime.now().plusMinutes(30))
+                .build();
+        BookingDtoToCreate past = BookingDtoToCreate.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().minusDays(1))
+                .end(LocalDateTime.now().plusMinutes(30))
+                .build();
+        // When
+        // Then
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-id", 2)
+                        .content(mapper.writeValueAsString(List.of(valid, past)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.description", containsString("[1].start")));
+        verify(bookingService, never()).createBookings(anyLong(), anyList());
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldRejectEmptyBookingsBatch() {
+        // Given
+        // When
+        // Then
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-id", 2)
+                        .content("[]")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @SneakyThrows
     @Test
     void itShouldApproveBooking() {
@@ -156,23 +434,11 @@ class BookingControllerTest {
     @Test
     void itShouldGetUserBookings() {
         // Given
-        BookingDto bookingDto1 = BookingDto.builder()
-                .id(1L)
-                .start(LocalDateTime.now())
-                .end(LocalDateTime.now().plusMinutes(30))
-                .status(BookingStatus.APPROVED)
-                .item(new Item())
-                .booker(new User())
-                .build();
+        BookingDtoShort bookingDto1 = new BookingDtoShort(1L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30),
+                BookingStatus.APPROVED, 1L, "Item1", 2L);
 
-        BookingDto bookingDto2 = BookingDto.builder()
-                .id(2L)
-                .start(LocalDateTime.now())
-                .end(LocalDateTime.now().plusMinutes(30))
-                .status(BookingStatus.APPROVED)
-                .item(new Item())
-                .booker(new User())
-                .build();
+        BookingDtoShort bookingDto2 = new BookingDtoShort(2L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30),
+                BookingStatus.APPROVED, 2L, "Item2", 2L);
 
         // When
         when(bookingService.getUserBookings(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingDto1, bookingDto2));
@@ -185,6 +451,9 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id", is(bookingDto1.getId()), Long.class))
+                .andExpect(jsonPath("$[0].item.id", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].item.name", is("Item1")))
+                .andExpect(jsonPath("$[0].booker.id", is(2L), Long.class))
                 .andExpect(jsonPath("$[1].id", is(bookingDto2.getId()), Long.class));
     }
 
@@ -192,46 +461,11 @@ class BookingControllerTest {
     @Test
     void itShouldGetAllUserItemsBookings() {
         // Given
+        BookingDtoShort bookingDto1 = new BookingDtoShort(1L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30),
+                BookingStatus.APPROVED, 1L, "Item1", 2L);
 
-        User user = User.builder()
-                .id(1L)
-                .name("username")
-                .email("username@yadnex.ru")
-                .build();
-
-        Item item1 = Item.builder()
-                .id(1L)
-                .name("Item1")
-                .description("Item1 description")
-                .isAvailable(true)
-                .owner(user)
-                .build();
-
-        Item item2 = Item.builder()
-                .id(2L)
-                .name("Item2")
-                .description("Item2 description")
-                .isAvailable(true)
-                .owner(user)
-                .build();
-
-        BookingDto bookingDto1 = BookingDto.builder()
-                .id(1L)
-                .start(LocalDateTime.now())
-                .end(LocalDateTime.now().plusMinutes(30))
-                .status(BookingStatus.APPROVED)
-                .item(item1)
-                .booker(new User())
-                .build();
-
-        BookingDto bookingDto2 = BookingDto.builder()
-                .id(2L)
-                .start(LocalDateTime.now())
-                .end(LocalDateTime.now().plusMinutes(30))
-                .status(BookingStatus.APPROVED)
-                .item(item2)
-                .booker(new User())
-                .build();
+        BookingDtoShort bookingDto2 = new BookingDtoShort(2L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30),
+                BookingStatus.APPROVED, 2L, "Item2", 2L);
 
         // When
         when(bookingService.getAllUserItemsBookings(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingDto1, bookingDto2));
@@ -244,6 +478,72 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id", is(bookingDto1.getId()), Long.class))
-                .andExpect(jsonPath("$[1].id", is(bookingDto2.getId()), Long.class));
+                .andExpect(jsonPath("$[1].id", is(bookingDto2.getId()), Long.class))
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldSetNextCursorOnFullFirstPage() {
+        // Given
+        BookingDtoShort bookingDto1 = new BookingDtoShort(1L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30),
+                BookingStatus.APPROVED, 1L, "Item1", 2L);
+
+        BookingDtoShort bookingDto2 = new BookingDtoShort(2L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30),
+                BookingStatus.APPROVED, 2L, "Item2", 2L);
+        String nextCursor = BookingCursor.after(bookingDto2).encode();
+
+        // When
+        when(bookingService.getUserBookings(anyLong(), anyString(), anyInt(), anyInt())).thenReturn(List.of(bookingDto1, bookingDto2));
+        // Then
+        mockMvc.perform(get("/bookings?state=ALL&size=2")
+                        .header("X-Sharer-User-id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, nextCursor))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldGetUserBookingsByCursor() {
+        // Given
+        BookingDtoShort bookingDto = new BookingDtoShort(1L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30),
+                BookingStatus.APPROVED, 1L, "Item1", 2L);
+        String nextCursor = BookingCursor.after(bookingDto).encode();
+
+        // When
+        when(bookingService.getUserBookingsByCursor(anyLong(), anyString(), anyString(), anyInt()))
+                .thenReturn(new BookingSlice(List.of(bookingDto), nextCursor));
+        // Then
+        mockMvc.perform(get("/bookings?state=ALL&cursor=&size=1")
+                        .header("X-Sharer-User-id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, nextCursor))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void itShouldNotSetNextCursorOnLastOwnerBookingsSlice() {
+        // Given
+        // When
+        when(bookingService.getAllUserItemsBookingsByCursor(anyLong(), anyString(), anyString(), anyInt()))
+                .thenReturn(new BookingSlice(List.of(), null));
+        // Then
+        mockMvc.perform(get("/bookings/owner?state=ALL&cursor=abc&size=10")
+                        .header("X-Sharer-User-id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$", hasSize(0)));
     }
-}
\ No newline at end of file
+}
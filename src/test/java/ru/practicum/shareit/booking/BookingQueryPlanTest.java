@@ -0,0 +1,151 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemViewCache;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles(profiles = {"ci,test"})
+@DataJpaTest(
+        properties = {
+                "spring.jpa.properties.javax.persistence.validation.mode=none",
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + "ru.practicum.shareit.booking.RecordingStatementInspector"
+        }
+)
+@Import({BookingServiceImpl.class, UserCache.class, InMemoryBookingOverlapGuard.class, ItemViewCache.class,
+        OwnerBookingSummary.class})
+class BookingQueryPlanTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingServiceImpl underTest;
+
+    private User owner;
+
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(User.builder()
+                .name("Owner")
+                .email("owner@yandex.ru")
+                .build());
+        booker = entityManager.persist(User.builder()
+                .name("Booker")
+                .email("booker@yandex.ru")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Item")
+                .description("Item description")
+                .isAvailable(true)
+                .owner(owner)
+                .build());
+        for (int i = 0; i < 10; i++) {
+            entityManager.persist(Booking.builder()
+                    .start(LocalDateTime.now().plusDays(i - 5))
+                    .end(LocalDateTime.now().plusDays(i - 4))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.values()[i % BookingStatus.values().length])
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void itShouldUseIndexesForUserBookings(State state) {
+        // Given
+        RecordingStatementInspector.clear();
+        // When
+        underTest.getUserBookings(booker.getId(), state.name(), 0, 10);
+        // Then
+        assertThat(explainBookingQueries()).isNotEmpty().allSatisfy(plan -> assertThat(plan)
+                .containsPattern(indexLookup("BOOKINGS"))
+                .containsPattern(archiveLookup(plan))
+                .doesNotContain("tableScan"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void itShouldUseIndexesForOwnerItemsBookings(State state) {
+        // Given
+        RecordingStatementInspector.clear();
+        // When
+        underTest.getAllUserItemsBookings(owner.getId(), state.name(), 0, 10);
+        // Then
+        assertThat(explainBookingQueries()).isNotEmpty().allSatisfy(plan -> assertThat(plan)
+                .containsPattern(indexLookup("ITEMS"))
+                .containsPattern(indexLookup("BOOKINGS"))
+                .containsPattern(archiveLookup(plan))
+                .doesNotContain("tableScan"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void itShouldUseIndexesForUserBookingsByCursor(State state) {
+        // Given
+        RecordingStatementInspector.clear();
+        // When
+        underTest.getUserBookingsByCursor(booker.getId(), state.name(), null, 10);
+        // Then
+        assertThat(explainBookingQueries()).isNotEmpty().allSatisfy(plan -> assertThat(plan)
+                .containsPattern(indexLookup("BOOKINGS"))
+                .containsPattern(archiveLookup(plan))
+                .doesNotContain("tableScan"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void itShouldUseIndexesForOwnerItemsBookingsByCursor(State state) {
+        // Given
+        RecordingStatementInspector.clear();
+        // When
+        underTest.getAllUserItemsBookingsByCursor(owner.getId(), state.name(), null, 10);
+        // Then
+        assertThat(explainBookingQueries()).isNotEmpty().allSatisfy(plan -> assertThat(plan)
+                .containsPattern(indexLookup("ITEMS"))
+                .containsPattern(indexLookup("BOOKINGS"))
+                .containsPattern(archiveLookup(plan))
+                .doesNotContain("tableScan"));
+    }
+
+    private Pattern indexLookup(String table) {
+        return Pattern.compile("(\"PUBLIC\"\\.\"" + table + "\" \"\\w+\"|PUBLIC\\." + table + ")\\s+/\\* PUBLIC\\.\\w+: ");
+    }
+
+    private Pattern archiveLookup(String plan) {
+        return plan.contains("BOOKINGS_ARCHIVE") ? indexLookup("BOOKINGS_ARCHIVE") : Pattern.compile("");
+    }
+
+    private List<String> explainBookingQueries() {
+        return RecordingStatementInspector.getStatements().stream()
+                .filter(sql -> sql.toLowerCase().contains("from bookings"))
+                .map(sql -> jdbcTemplate.query(con -> con.prepareStatement("explain " + sql),
+                        rs -> rs.next() ? rs.getString(1) : ""))
+                .collect(Collectors.toList());
+    }
+}
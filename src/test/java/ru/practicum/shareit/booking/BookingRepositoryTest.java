@@ -6,6 +6,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.Item;
@@ -14,9 +16,13 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @ActiveProfiles(profiles = {"ci,test"})
 @DataJpaTest(
@@ -115,7 +121,7 @@ class BookingRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(booking1))
+        assertThatThrownBy(() -> underTest.saveAndFlush(booking1))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -153,7 +159,7 @@ class BookingRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(booking1))
+        assertThatThrownBy(() -> underTest.saveAndFlush(booking1))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -191,7 +197,7 @@ class BookingRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(booking1))
+        assertThatThrownBy(() -> underTest.saveAndFlush(booking1))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -229,7 +235,7 @@ class BookingRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(booking1))
+        assertThatThrownBy(() -> underTest.saveAndFlush(booking1))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -267,7 +273,7 @@ class BookingRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(booking1))
+        assertThatThrownBy(() -> underTest.saveAndFlush(booking1))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -332,11 +338,76 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 2);
         assertThat(underTest.findAllByBookerIdOrderByStartDesc(booker.getId(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(2)
-                .containsExactly(booking2, booking1);
+                .containsExactly(booking2.getId(), booking1.getId());
 
     }
 
+    @Test
+    void itShouldWalkBookerBookingsByCursor() {
+        // Given
+        User owner = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build());
+
+        User booker = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail1@yandex.ru")
+                .build());
+
+        Item item = itemRepository.save(Item.builder()
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build());
+
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+        Booking booking1 = underTest.save(Booking.builder()
+                .start(start)
+                .end(start.plusMinutes(30))
+                .status(BookingStatus.WAITING)
+                .booker(booker)
+                .item(item)
+                .build());
+        Booking booking2 = underTest.save(Booking.builder()
+                .start(start.plusMinutes(30))
+                .end(start.plusMinutes(60))
+                .status(BookingStatus.WAITING)
+                .booker(booker)
+                .item(item)
+                .build());
+        Booking booking3 = underTest.save(Booking.builder()
+                .start(start.plusMinutes(30))
+                .end(start.plusMinutes(90))
+                .status(BookingStatus.WAITING)
+                .booker(booker)
+                .item(item)
+                .build());
+
+        // When
+        Pageable pageable = PageRequest.of(0, 2);
+        Slice<BookingDtoShort> firstPage = underTest.findAllBookingsByUserBefore(booker.getId(),
+                BookingCursor.FIRST.getStart(), BookingCursor.FIRST.getId(), pageable);
+        BookingDtoShort lastSeen = firstPage.getContent().get(1);
+        Slice<BookingDtoShort> secondPage = underTest.findAllBookingsByUserBefore(booker.getId(),
+                lastSeen.getStart(), lastSeen.getId(), pageable);
+        Slice<BookingDtoShort> offsetPage = underTest.findAllByBookerIdOrderByStartDesc(booker.getId(),
+                PageRequest.of(0, 3, Sort.by("id").descending()));
+
+        // Then
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(firstPage.getContent()).extracting(BookingDtoShort::getId)
+                .containsExactly(booking3.getId(), booking2.getId());
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(secondPage.getContent()).extracting(BookingDtoShort::getId)
+                .containsExactly(booking1.getId());
+        assertThat(offsetPage.getContent()).extracting(BookingDtoShort::getId)
+                .containsExactly(booking3.getId(), booking2.getId(), booking1.getId());
+    }
+
     @Test
     void itShouldFindAllCurrentBookings() {
         // Given
@@ -397,8 +468,9 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 1);
         assertThat(underTest.findAllCurrentBookingsByUser(booker.getId(), LocalDateTime.now(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .containsExactly(booking1);
+                .containsExactly(booking1.getId());
 
     }
 
@@ -462,8 +534,9 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 1);
         assertThat(underTest.findAllFutureBookingsByUser(booker.getId(), LocalDateTime.now(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .containsExactly(booking2);
+                .containsExactly(booking2.getId());
 
     }
 
@@ -527,8 +600,9 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 1);
         assertThat(underTest.findAllPastBookingsByUser(booker.getId(), LocalDateTime.now(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .containsExactly(booking1);
+                .containsExactly(booking1.getId());
 
     }
 
@@ -592,12 +666,14 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 1);
         assertThat(underTest.findAllRejectedBookingsByUser(booker.getId(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .containsExactly(booking2);
+                .containsExactly(booking2.getId());
 
         assertThat(underTest.findAllWaitingBookingsByUser(booker.getId(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .containsExactly(booking1);
+                .containsExactly(booking1.getId());
 
     }
 
@@ -665,8 +741,9 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 2);
         assertThat(underTest.findAllItemsBookings(owner.getId(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(2)
-                .contains(booking1, booking2);
+                .contains(booking1.getId(), booking2.getId());
 
     }
 
@@ -732,8 +809,9 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 1);
         assertThat(underTest.findAllItemsCurrentBookings(owner.getId(), LocalDateTime.now(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .contains(booking1);
+                .contains(booking1.getId());
 
     }
 
@@ -799,12 +877,14 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 1);
         assertThat(underTest.findAllItemsPastBookings(owner.getId(), LocalDateTime.now(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .contains(booking1);
+                .contains(booking1.getId());
 
         assertThat(underTest.findAllItemsFutureBookings(owner.getId(), LocalDateTime.now(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .contains(booking2);
+                .contains(booking2.getId());
     }
 
     @Test
@@ -870,16 +950,18 @@ class BookingRepositoryTest {
         // Then
         Pageable pageable = PageRequest.of(0, 1);
         assertThat(underTest.findAllItemsRejectedBookings(owner.getId(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .contains(booking2);
+                .contains(booking2.getId());
 
         assertThat(underTest.findAllItemsWaitingBookings(owner.getId(), pageable))
+                .extracting(BookingDtoShort::getId)
                 .hasSize(1)
-                .contains(booking1);
+                .contains(booking1.getId());
     }
 
     @Test
-    void itShouldFindAllBookingsByItemId() {
+    void itShouldFindLastAndNextBookingByItemId() {
         // Given
         User owner = User.builder()
                 .name("Username")
@@ -893,48 +975,134 @@ class BookingRepositoryTest {
                 .owner(owner)
                 .build();
 
-
-        User booker1 = User.builder()
+        User booker = User.builder()
                 .name("Username")
                 .email("Useremail1@yandex.ru")
                 .build();
 
-        User booker2 = User.builder()
-                .name("Username")
-                .email("Useremail2@yandex.ru")
+        Booking oldBooking = Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .status(BookingStatus.APPROVED)
+                .booker(booker)
+                .item(item)
                 .build();
 
-        Booking booking1 = Booking.builder()
+        Booking lastBooking = Booking.builder()
                 .start(LocalDateTime.now().minusMinutes(40))
                 .end(LocalDateTime.now().minusMinutes(10))
                 .status(BookingStatus.APPROVED)
-                .booker(booker1)
+                .booker(booker)
                 .item(item)
                 .build();
 
-        Booking booking2 = Booking.builder()
+        Booking nextBooking = Booking.builder()
                 .start(LocalDateTime.now().plusMinutes(30))
                 .end(LocalDateTime.now().plusMinutes(60))
                 .status(BookingStatus.APPROVED)
-                .booker(booker2)
+                .booker(booker)
+                .item(item)
+                .build();
+
+        Booking rejectedBooking = Booking.builder()
+                .start(LocalDateTime.now().plusMinutes(10))
+                .end(LocalDateTime.now().plusMinutes(20))
+                .status(BookingStatus.REJECTED)
+                .booker(booker)
                 .item(item)
                 .build();
 
         userRepository.save(owner);
-        userRepository.save(booker1);
-        userRepository.save(booker2);
+        userRepository.save(booker);
         itemRepository.save(item);
-
-
+        underTest.save(oldBooking);
+        underTest.save(lastBooking);
+        underTest.save(nextBooking);
+        underTest.save(rejectedBooking);
         // When
-        underTest.save(booking1);
-        underTest.save(booking2);
+        LocalDateTime now = LocalDateTime.now();
         // Then
-        assertThat(underTest.findAllBookingsByItemId(item.getId()))
-                .hasSize(2)
-                .containsExactly(booking1, booking2);
+        assertThat(underTest.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                BookingStatus.APPROVED, now)).contains(lastBooking);
+        assertThat(underTest.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(item.getId(),
+                BookingStatus.APPROVED, now)).contains(nextBooking);
+    }
+
+    @Test
+    void itShouldFindLastAndNextBookingsByItemIdIn() {
+        // Given
+        User owner = User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build();
+
+        Item item1 = Item.builder()
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build();
+
+        Item item2 = Item.builder()
+                .name("Item2")
+                .description("Item2 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build();
 
+        User booker = User.builder()
+                .name("Username")
+                .email("Useremail1@yandex.ru")
+                .build();
+
+        Booking oldBooking = Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .status(BookingStatus.APPROVED)
+                .booker(booker)
+                .item(item1)
+                .build();
+
+        Booking lastBooking = Booking.builder()
+                .start(LocalDateTime.now().minusMinutes(40))
+                .end(LocalDateTime.now().minusMinutes(10))
+                .status(BookingStatus.APPROVED)
+                .booker(booker)
+                .item(item1)
+                .build();
+
+        Booking nextBooking = Booking.builder()
+                .start(LocalDateTime.now().plusMinutes(30))
+                .end(LocalDateTime.now().plusMinutes(60))
+                .status(BookingStatus.APPROVED)
+                .booker(booker)
+                .item(item2)
+                .build();
+
+        Booking laterBooking = Booking.builder()
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .status(BookingStatus.APPROVED)
+                .booker(booker)
+                .item(item2)
+                .build();
 
+        userRepository.save(owner);
+        userRepository.save(booker);
+        itemRepository.save(item1);
+        itemRepository.save(item2);
+        underTest.save(oldBooking);
+        underTest.save(lastBooking);
+        underTest.save(nextBooking);
+        underTest.save(laterBooking);
+        // When
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = List.of(item1.getId(), item2.getId());
+        // Then
+        assertThat(underTest.findLastBookingsByItemIdIn(itemIds, now))
+                .containsExactly(lastBooking);
+        assertThat(underTest.findNextBookingsByItemIdIn(itemIds, now))
+                .containsExactly(nextBooking);
     }
 
     @Test
@@ -991,9 +1159,228 @@ class BookingRepositoryTest {
         // Then
         assertThat(underTest.findAllByBookerIdAndItemIdAndEndBefore(item.getId(), booker1.getId(), LocalDateTime.now()))
                 .hasSize(1)
-                .containsExactly(booking1);
+                .extracting(BookingHistory::getId)
+                .containsExactly(booking1.getId());
+
+
+    }
+
+    @Test
+    void itShouldFindApprovedBookingsEndingAfterDate() {
+        // Given
+        User owner = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build());
+
+        User booker = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail1@yandex.ru")
+                .build());
+
+        Item item = itemRepository.save(Item.builder()
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build());
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        underTest.save(Booking.builder()
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .status(BookingStatus.APPROVED)
+                .booker(booker)
+                .item(item)
+                .build());
+        Booking future = underTest.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .status(BookingStatus.APPROVED)
+                .booker(booker)
+                .item(item)
+                .build());
+        underTest.save(Booking.builder()
+                .start(now.plusDays(3))
+                .end(now.plusDays(4))
+                .status(BookingStatus.WAITING)
+                .booker(booker)
+                .item(item)
+                .build());
 
+        // When
+        List<ApprovedBookingEntry> approved = underTest.findAllApprovedEndingAfter(now);
 
+        // Then
+        assertThat(approved).extracting(ApprovedBookingEntry::getId).containsExactly(future.getId());
+        assertThat(approved.get(0).getItemId()).isEqualTo(item.getId());
+        assertThat(approved.get(0).getEnd()).isEqualTo(future.getEnd());
     }
 
-}
\ No newline at end of file
+    @Test
+    void itShouldUpdateOnlyOwnedWaitingBookings() {
+        // Given
+        User owner = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build());
+
+        User stranger = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail1@yandex.ru")
+                .build());
+
+        Item ownItem = itemRepository.save(Item.builder()
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build());
+
+        Item strangerItem = itemRepository.save(Item.builder()
+                .name("Item2")
+                .description("Item2 description")
+                .isAvailable(true)
+                .owner(stranger)
+                .build());
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Booking waiting = underTest.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .status(BookingStatus.WAITING)
+                .booker(stranger)
+                .item(ownItem)
+                .build());
+        Booking rejected = underTest.save(Booking.builder()
+                .start(now.plusDays(3))
+                .end(now.plusDays(4))
+                .status(BookingStatus.REJECTED)
+                .booker(stranger)
+                .item(ownItem)
+                .build());
+        Booking foreign = underTest.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .status(BookingStatus.WAITING)
+                .booker(owner)
+                .item(strangerItem)
+                .build());
+        underTest.flush();
+        List<Long> ids = List.of(waiting.getId(), rejected.getId(), foreign.getId());
+
+        // When
+        int updated = underTest.updateWaitingStatusByOwner(ids, owner.getId(), BookingStatus.APPROVED);
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(underTest.findDecisionEntriesByIdIn(ids))
+                .extracting(BookingDecisionEntry::getId, BookingDecisionEntry::getOwnerId,
+                        BookingDecisionEntry::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple(waiting.getId(), owner.getId(), BookingStatus.APPROVED),
+                        tuple(rejected.getId(), owner.getId(), BookingStatus.REJECTED),
+                        tuple(foreign.getId(), stranger.getId(), BookingStatus.WAITING));
+    }
+
+    @Test
+    void itShouldStreamBookerAndOwnerBookingsNewestFirst() {
+        // Given
+        User owner = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build());
+
+        User booker = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail1@yandex.ru")
+                .build());
+
+        Item item = itemRepository.save(Item.builder()
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build());
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Booking older = underTest.save(Booking.builder()
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .status(BookingStatus.APPROVED)
+                .booker(booker)
+                .item(item)
+                .build());
+        Booking newer = underTest.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .status(BookingStatus.WAITING)
+                .booker(booker)
+                .item(item)
+                .build());
+
+        // When
+        List<Long> bookerIds;
+        try (Stream<BookingDtoShort> bookings = underTest.streamAllByBookerId(booker.getId())) {
+            bookerIds = bookings.map(BookingDtoShort::getId).collect(Collectors.toList());
+        }
+        List<Long> ownerIds;
+        try (Stream<BookingDtoShort> bookings = underTest.streamAllItemsBookings(owner.getId())) {
+            ownerIds = bookings.map(BookingDtoShort::getId).collect(Collectors.toList());
+        }
+
+        // Then
+        assertThat(bookerIds).containsExactly(newer.getId(), older.getId());
+        assertThat(ownerIds).containsExactly(newer.getId(), older.getId());
+        try (Stream<BookingDtoShort> bookings = underTest.streamAllByBookerId(owner.getId())) {
+            assertThat(bookings).isEmpty();
+        }
+    }
+
+    @Test
+    void itShouldCountBookingsByOwner() {
+        // Given
+        User owner = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build());
+        User booker = userRepository.save(User.builder()
+                .name("Username2")
+                .email("Useremail2@yandex.ru")
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        for (BookingStatus status : List.of(BookingStatus.WAITING, BookingStatus.REJECTED, BookingStatus.APPROVED)) {
+            underTest.save(Booking.builder()
+                    .start(now.minusDays(2))
+                    .end(now.minusDays(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(status)
+                    .build());
+        }
+        underTest.save(Booking.builder()
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+        // When
+        List<OwnerBookingCounts> counts = underTest.countAllByOwner(now);
+        // Then
+        assertThat(counts).hasSize(1);
+        assertThat(counts.get(0).getOwnerId()).isEqualTo(owner.getId());
+        assertThat(counts.get(0).getWaiting()).isEqualTo(2);
+        assertThat(counts.get(0).getRejected()).isEqualTo(1);
+        assertThat(counts.get(0).getPast()).isEqualTo(3);
+        assertThat(underTest.findAllOwnerEntriesEndingFrom(now))
+                .extracting(BookingDecisionEntry::getOwnerId)
+                .containsExactly(owner.getId());
+    }
+}
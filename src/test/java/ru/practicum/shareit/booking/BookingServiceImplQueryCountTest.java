@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemViewCache;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles(profiles = {"ci,test"})
+@DataJpaTest(
+        properties = {
+                "spring.jpa.properties.javax.persistence.validation.mode=none",
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + "ru.practicum.shareit.booking.RecordingStatementInspector"
+        }
+)
+@Import({BookingServiceImpl.class, UserCache.class, InMemoryBookingOverlapGuard.class, ItemViewCache.class,
+        OwnerBookingSummary.class})
+class BookingServiceImplQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingServiceImpl underTest;
+
+    private User owner;
+
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(User.builder()
+                .name("Owner")
+                .email("owner@yandex.ru")
+                .build());
+        booker = entityManager.persist(User.builder()
+                .name("Booker")
+                .email("booker@yandex.ru")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Item")
+                .description("Item description")
+                .isAvailable(true)
+                .owner(owner)
+                .build());
+        for (int i = 0; i < 20; i++) {
+            entityManager.persist(Booking.builder()
+                    .start(LocalDateTime.now().plusDays(i - 10))
+                    .end(LocalDateTime.now().plusDays(i - 9))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.values()[i % BookingStatus.values().length])
+                    .build());
+        }
+        entityManager.flush();
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void itShouldLoadUserBookingsWithoutCountOrEntityQueries(State state) {
+        // Given
+        // When
+        List<String> queries = recordQueries(() -> underTest.getUserBookings(booker.getId(),
+                state.name(), 0, 1));
+        // Then
+        assertThat(queries).hasSize(2);
+        assertThat(queries).filteredOn(sql -> sql.contains("from bookings"))
+                .hasSize(1)
+                .noneMatch(sql -> sql.contains("count("));
+    }
+
+    @ParameterizedTest
+    @EnumSource(State.class)
+    void itShouldLoadOwnerItemsBookingsWithoutCountOrEntityQueries(State state) {
+        // Given
+        // When
+        List<String> queries = recordQueries(() -> underTest.getAllUserItemsBookings(owner.getId(),
+                state.name(), 0, 1));
+        // Then
+        assertThat(queries).hasSize(2);
+        assertThat(queries).filteredOn(sql -> sql.contains("from bookings"))
+                .hasSize(1)
+                .noneMatch(sql -> sql.contains("count("));
+    }
+
+    private List<String> recordQueries(Runnable call) {
+        entityManager.clear();
+        RecordingStatementInspector.clear();
+        call.run();
+        return RecordingStatementInspector.getStatements().stream()
+                .map(sql -> sql.toLowerCase())
+                .collect(Collectors.toList());
+    }
+}
@@ -8,21 +8,27 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemViewCache;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.*;
@@ -40,15 +46,322 @@ class BookingServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private BookingOverlapGuard overlapGuard;
+
+    @Mock
+    private ItemViewCache itemViewCache;
+
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OwnerBookingSummary ownerBookingSummary;
+
     @InjectMocks
     private BookingServiceImpl underTest;
 
     @BeforeEach
     void setUp() {
-        underTest = new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        underTest = new BookingServiceImpl(bookingRepository, userRepository, itemRepository, userCache, overlapGuard,
+                itemViewCache, eventPublisher, ownerBookingSummary);
+    }
+
+    @Test
+    void itShouldCreateValidBookingsAndReportFailedOnesInBatch() {
+        // Given
+        User itemOwner = User.builder()
+                .id(1L)
+                .name("User1")
+                .email("Useremail@yandex.ru")
+                .build();
+
+        User booker = User.builder()
+                .id(2L)
+                .name("User2")
+                .email("Useremail1@yandex.ru")
+                .build();
+
+        Item available = Item.builder()
+                .id(1L)
+                .name("Item1")
+                .description("Item1 Description")
+                .isAvailable(true)
+                .owner(itemOwner)
+                .build();
+
+        Item unavailable = Item.builder()
+                .id(2L)
+                .name("Item2")
+                .description("Item2 Description")
+                .isAvailable(false)
+                .owner(itemOwner)
+                .build();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDtoToCreate valid = BookingDtoToCreate.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .itemId(available.getId())
+                .build();
+        BookingDtoToCreate missingItem = BookingDtoToCreate.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .itemId(99L)
+                .build();
+        BookingDtoToCreate notAvailable = BookingDtoToCreate.builder()
+                .start(start)
+                .end(start.plusHours(1))
+                .itemId(unavailable.getId())
+                .build();
+        BookingDtoToCreate wrongDates = BookingDtoToCreate.builder()
+                .start(start)
+                .end(start.minusHours(1))
+                .itemId(available.getId())
+                .build();
+
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllByIdIn(any())).thenReturn(List.of(available, unavailable));
+        when(overlapGuard.isFree(available.getId(), valid.getStart(), valid.getEnd())).thenReturn(true);
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.get(0).setId(10L);
+            return bookings;
+        });
+
+        // When
+        List<BookingBatchResult> results = underTest.createBookings(booker.getId(),
+                List.of(missingItem, valid, notAvailable, wrongDates));
+
+        // Then
+        verify(itemRepository, times(1)).findAllByIdIn(any());
+        verify(itemRepository, never()).findById(anyLong());
+        assertThat(results).extracting(BookingBatchResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BookingBatchResult::getError).containsExactly(
+                "Item not found", null, "Item is not available", "Not valid start and end date");
+        assertThat(results.get(1).getBooking().getId()).isEqualTo(10L);
+        assertThat(results.get(1).getBooking().getStatus()).isEqualTo(BookingStatus.WAITING);
+        assertThat(results.get(1).getBooking().getBooker()).isEqualTo(booker);
+    }
+
+    @Test
+    void itShouldNotCreateBookingsBatchWhenUserNotFound() {
+        // Given
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.createBookings(2L, List.of()))
+                .isInstanceOf(UserNotFoundException.class)
+                .hasMessageContaining("User not found");
+        verify(bookingRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void itShouldApproveOwnedWaitingBookingsInOneUpdate() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDecisionEntry waiting = decisionEntry(1L, 10L, 1L, BookingStatus.WAITING, start);
+        BookingDecisionEntry overlapping = decisionEntry(2L, 11L, 1L, BookingStatus.WAITING, start);
+        BookingDecisionEntry approved = decisionEntry(3L, 10L, 1L, BookingStatus.APPROVED, start.plusDays(5));
+        BookingDecisionEntry foreign = decisionEntry(4L, 12L, 7L, BookingStatus.WAITING, start);
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L);
+
+        when(userCache.exists(1L)).thenReturn(true);
+        when(bookingRepository.findDecisionEntriesByIdIn(ids))
+                .thenReturn(List.of(waiting, overlapping, approved, foreign));
+        doAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            if (booking.getId() == 2L) {
+                throw new ItemNotAvailableException("Item is already booked for these dates");
+            }
+            return null;
+        }).when(overlapGuard).reserve(any());
+        when(bookingRepository.updateWaitingStatusByOwner(List.of(1L), 1L, BookingStatus.APPROVED)).thenReturn(1);
+
+        // When
+        List<BookingDecisionResult> results = underTest.approveBookings(1L, ids, true);
+
+        // Then
+        assertThat(results).extracting(BookingDecisionResult::getBookingId, BookingDecisionResult::getOutcome)
+                .containsExactly(
+                        tuple(1L, BookingDecisionOutcome.APPROVED),
+                        tuple(2L, BookingDecisionOutcome.ALREADY_BOOKED),
+                        tuple(3L, BookingDecisionOutcome.NOT_WAITING),
+                        tuple(4L, BookingDecisionOutcome.NOT_OWNER),
+                        tuple(5L, BookingDecisionOutcome.NOT_FOUND));
+        verify(overlapGuard, times(2)).reserve(any());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void itShouldNotApproveOverlappingBookingsFromOneBatch() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDecisionEntry first = decisionEntry(1L, 10L, 1L, BookingStatus.WAITING, start);
+        BookingDecisionEntry overlapping = decisionEntry(2L, 10L, 1L, BookingStatus.WAITING, start.plusMinutes(30));
+        BookingDecisionEntry adjacent = decisionEntry(3L, 10L, 1L, BookingStatus.WAITING, start.plusHours(1));
+        List<Long> ids = List.of(1L, 2L, 3L);
+
+        when(userCache.exists(1L)).thenReturn(true);
+        when(bookingRepository.findDecisionEntriesByIdIn(ids)).thenReturn(List.of(first, overlapping, adjacent));
+        when(bookingRepository.updateWaitingStatusByOwner(List.of(1L, 3L), 1L, BookingStatus.APPROVED))
+                .thenReturn(2);
+
+        // When
+        List<BookingDecisionResult> results = underTest.approveBookings(1L, ids, true);
+
+        // Then
+        assertThat(results).extracting(BookingDecisionResult::getBookingId, BookingDecisionResult::getOutcome)
+                .containsExactly(
+                        tuple(1L, BookingDecisionOutcome.APPROVED),
+                        tuple(2L, BookingDecisionOutcome.ALREADY_BOOKED),
+                        tuple(3L, BookingDecisionOutcome.APPROVED));
+        verify(overlapGuard, times(2)).reserve(any());
+    }
+
+    @Test
+    void itShouldRejectBookingsWithoutReservingSlots() {
+        // Given
+        BookingDecisionEntry waiting = decisionEntry(1L, 10L, 1L, BookingStatus.WAITING,
+                LocalDateTime.now().plusDays(1));
+
+        when(userCache.exists(1L)).thenReturn(true);
+        when(bookingRepository.findDecisionEntriesByIdIn(List.of(1L, 1L))).thenReturn(List.of(waiting));
+        when(bookingRepository.updateWaitingStatusByOwner(List.of(1L), 1L, BookingStatus.REJECTED)).thenReturn(1);
+
+        // When
+        List<BookingDecisionResult> results = underTest.approveBookings(1L, List.of(1L, 1L), false);
+
+        // Then
+        assertThat(results).extracting(BookingDecisionResult::getOutcome)
+                .containsExactly(BookingDecisionOutcome.REJECTED);
+        verifyNoInteractions(overlapGuard);
+    }
+
+    @Test
+    void itShouldReportBookingsChangedConcurrentlyAsNotWaiting() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDecisionEntry waiting = decisionEntry(1L, 10L, 1L, BookingStatus.WAITING, start);
+        BookingDecisionEntry rejectedMeanwhile = decisionEntry(1L, 10L, 1L, BookingStatus.REJECTED, start);
+
+        when(userCache.exists(1L)).thenReturn(true);
+        when(bookingRepository.findDecisionEntriesByIdIn(List.of(1L)))
+                .thenReturn(List.of(waiting))
+                .thenReturn(List.of(rejectedMeanwhile));
+        when(bookingRepository.updateWaitingStatusByOwner(List.of(1L), 1L, BookingStatus.APPROVED)).thenReturn(0);
+
+        // When
+        List<BookingDecisionResult> results = underTest.approveBookings(1L, List.of(1L), true);
+
+        // Then
+        assertThat(results).extracting(BookingDecisionResult::getOutcome)
+                .containsExactly(BookingDecisionOutcome.NOT_WAITING);
+        verify(overlapGuard).reserve(any());
+        verify(overlapGuard).release(any());
+    }
+
+    @Test
+    void itShouldNotApproveBookingsWhenUserNotFound() {
+        // Given
+        when(userCache.exists(1L)).thenReturn(false);
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.approveBookings(1L, List.of(1L), true))
+                .isInstanceOf(UserNotFoundException.class)
+                .hasMessageContaining("User not found");
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private BookingHistory archivedBooking(User itemOwner, User booker) {
+        BookingHistory archived = mock(BookingHistory.class);
+        lenient().when(archived.getId()).thenReturn(1L);
+        lenient().when(archived.getStatus()).thenReturn(BookingStatus.APPROVED);
+        lenient().when(archived.getBooker()).thenReturn(booker);
+        lenient().when(archived.getItem()).thenReturn(Item.builder()
+                .id(1L)
+                .name("Item1")
+                .description("Item1 Description")
+                .isAvailable(true)
+                .owner(itemOwner)
+                .build());
+        return archived;
+    }
+
+    private BookingDecisionEntry decisionEntry(long id, long itemId, long ownerId, BookingStatus status,
+                                               LocalDateTime start) {
+        return new BookingDecisionEntry() {
+            @Override
+            public long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return start.plusHours(1);
+            }
+        };
+    }
+
+    @Test
+    void itShouldExportOwnerBookingsToConsumer() {
+        // Given
+        LocalDateTime start = LocalDateTime.now();
+        BookingDtoShort first = new BookingDtoShort(2L, start, start.plusHours(1), BookingStatus.WAITING,
+                1L, "Item1", 3L);
+        BookingDtoShort second = new BookingDtoShort(1L, start.minusDays(1), start.minusHours(1),
+                BookingStatus.APPROVED, 1L, "Item1", 3L);
+        List<BookingDtoShort> exported = new ArrayList<>();
+
+        when(userCache.exists(1L)).thenReturn(true);
+        when(bookingRepository.streamAllItemsBookings(1L)).thenReturn(Stream.of(first, second));
+
+        // When
+        underTest.exportBookings(1L, true, exported::add);
+
+        // Then
+        assertThat(exported).containsExactly(first, second);
+        verify(bookingRepository, never()).streamAllByBookerId(anyLong());
+    }
+
+    @Test
+    void itShouldNotExportBookingsWhenUserNotFound() {
+        // Given
+        when(userCache.exists(1L)).thenReturn(false);
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.exportBookings(1L, false, booking -> { }))
+                .isInstanceOf(UserNotFoundException.class);
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -100,6 +413,8 @@ class BookingServiceImplTest {
 
         when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
         when(itemRepository.findById(bookingDtoToCreate.getItemId())).thenReturn(Optional.of(itemFromDb));
+        when(overlapGuard.isFree(itemFromDb.getId(), bookingDtoToCreate.getStart(), bookingDtoToCreate.getEnd()))
+                .thenReturn(true);
         when(bookingRepository.save(any())).thenReturn(bookingToBeSaved);
 
         // When
@@ -506,16 +821,98 @@ class BookingServiceImplTest {
 
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingToBeSaved));
         when(bookingRepository.save(any())).thenReturn(bookingApproved);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
 
         // When
         BookingDto bookingCreated = underTest.approveBooking(itemOwner.getId(), bookingToBeSaved.getId(), true);
         // Then
+        then(overlapGuard).should().reserve(bookingToBeSaved);
         then(bookingRepository).should().save(argumentCaptor.capture());
         assertThat(argumentCaptor.getValue()).isEqualToComparingFieldByField(bookingApproved);
         assertThat(bookingCreated.getStatus()).isEqualTo(BookingStatus.APPROVED);
     }
 
+    @Test
+    void itShouldNotCreateBookingWhenDatesOverlapApprovedBooking() {
+        // Given
+        User itemOwner = User.builder()
+                .id(1L)
+                .name("User1")
+                .email("Useremail@yandex.ru")
+                .build();
+
+        User booker = User.builder()
+                .id(2L)
+                .name("User2")
+                .email("Useremail1@yandex.ru")
+                .build();
+
+        Item itemFromDb = Item.builder()
+                .id(1L)
+                .name("Item1")
+                .description("Item1 Description")
+                .isAvailable(true)
+                .owner(itemOwner)
+                .build();
+
+        BookingDtoToCreate bookingDtoToCreate = BookingDtoToCreate.builder()
+                .start(LocalDateTime.now())
+                .end(LocalDateTime.now().plusMinutes(10))
+                .itemId(itemFromDb.getId())
+                .build();
+
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(itemFromDb));
+        when(overlapGuard.isFree(itemFromDb.getId(), bookingDtoToCreate.getStart(), bookingDtoToCreate.getEnd()))
+                .thenReturn(false);
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.createBooking(booker.getId(), bookingDtoToCreate))
+                .isInstanceOf(ItemNotAvailableException.class)
+                .hasMessageContaining("Item is already booked for these dates");
+        then(bookingRepository).should(never()).save(any());
+    }
+
+    @Test
+    void itShouldNotApproveBookingWhenDatesOverlapApprovedBooking() {
+        // Given
+        User itemOwner = User.builder()
+                .id(1L)
+                .name("User1")
+                .email("Useremail@yandex.ru")
+                .build();
+
+        Item itemFromDb = Item.builder()
+                .id(1L)
+                .name("Item1")
+                .description("Item1 Description")
+                .isAvailable(true)
+                .owner(itemOwner)
+                .build();
+
+        Booking booking = Booking.builder()
+                .id(1L)
+                .start(LocalDateTime.now())
+                .end(LocalDateTime.now().plusMinutes(10))
+                .status(BookingStatus.WAITING)
+                .item(itemFromDb)
+                .booker(new User())
+                .build();
+
+        when(userCache.exists(1L)).thenReturn(true);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        doThrow(new ItemNotAvailableException("Item is already booked for these dates"))
+                .when(overlapGuard).reserve(booking);
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.approveBooking(itemOwner.getId(), booking.getId(), true))
+                .isInstanceOf(ItemNotAvailableException.class);
+        then(bookingRepository).should(never()).save(any());
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
     @Test
     void itShouldNotApproveBookingWhenUserNotFound() {
         // Given
@@ -557,7 +954,7 @@ class BookingServiceImplTest {
                 .status(BookingStatus.APPROVED)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
 
         // When
         // Then
@@ -608,7 +1005,7 @@ class BookingServiceImplTest {
                 .status(BookingStatus.APPROVED)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
 
         // When
@@ -660,7 +1057,7 @@ class BookingServiceImplTest {
                 .status(BookingStatus.APPROVED)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingToBeSaved));
 
         // When
@@ -712,7 +1109,7 @@ class BookingServiceImplTest {
                 .status(BookingStatus.APPROVED)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingToBeSaved));
 
         // When
@@ -764,7 +1161,7 @@ class BookingServiceImplTest {
                 .status(BookingStatus.APPROVED)
                 .build();
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingToBeSaved));
 
         // When
@@ -816,7 +1213,7 @@ class BookingServiceImplTest {
                 .status(BookingStatus.APPROVED)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingToBeSaved));
         when(bookingRepository.save(any())).thenReturn(bookingApproved);
 
@@ -867,7 +1264,7 @@ class BookingServiceImplTest {
                 .status(BookingStatus.REJECTED)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingToBeSaved));
         when(bookingRepository.save(any())).thenReturn(bookingRejected);
 
@@ -925,7 +1322,7 @@ class BookingServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingToBeSaved));
         // When
         BookingDto bookingDto = underTest.getBooking(2L, 1L);
@@ -934,6 +1331,57 @@ class BookingServiceImplTest {
         assertThat(bookingDto).isEqualToComparingFieldByField(created);
     }
 
+    @Test
+    void itShouldGetArchivedBooking() {
+        // Given
+        User itemOwner = User.builder()
+                .id(1L)
+                .name("User1")
+                .email("Useremail@yandex.ru")
+                .build();
+        User booker = User.builder()
+                .id(2L)
+                .name("User2")
+                .email("Useremail1@yandex.ru")
+                .build();
+        BookingHistory archived = archivedBooking(itemOwner, booker);
+
+        when(userCache.exists(2L)).thenReturn(true);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookingRepository.findHistoryById(1L)).thenReturn(Optional.of(archived));
+        // When
+        BookingDto bookingDto = underTest.getBooking(2L, 1L);
+        // Then
+        assertThat(bookingDto.getId()).isEqualTo(1L);
+        assertThat(bookingDto.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(bookingDto.getBooker()).isEqualTo(booker);
+    }
+
+    @Test
+    void itShouldNotApproveArchivedBooking() {
+        // Given
+        User itemOwner = User.builder()
+                .id(1L)
+                .name("User1")
+                .email("Useremail@yandex.ru")
+                .build();
+        User booker = User.builder()
+                .id(2L)
+                .name("User2")
+                .email("Useremail1@yandex.ru")
+                .build();
+        BookingHistory archived = archivedBooking(itemOwner, booker);
+
+        when(userCache.exists(1L)).thenReturn(true);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookingRepository.findHistoryById(1L)).thenReturn(Optional.of(archived));
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.approveBooking(1L, 1L, false))
+                .isInstanceOf(ValidationException.class);
+        then(bookingRepository).should(never()).save(any());
+    }
+
     @Test
     void itShouldNotGetBookingWhenUserNotFound() {
         // Given
@@ -982,7 +1430,7 @@ class BookingServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userCache.exists(2L)).thenReturn(false);
         // When
         // Then
         assertThatThrownBy(() -> underTest.getBooking(2L, 1L))
@@ -1038,7 +1486,7 @@ class BookingServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
         // When
         // Then
@@ -1101,7 +1549,7 @@ class BookingServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(3L)).thenReturn(Optional.of(notBookerOrOwner));
+        when(userCache.exists(3L)).thenReturn(true);
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingToBeSaved));
         // When
         // Then
@@ -1160,12 +1608,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findAllByBookerIdOrderByStartDesc(2L, pageable)).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getUserBookings(2L, "ALL", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getUserBookings(2L, "ALL", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1221,12 +1670,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findAllCurrentBookingsByUser(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getUserBookings(2L, "CURRENT", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getUserBookings(2L, "CURRENT", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1282,12 +1732,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findAllPastBookingsByUser(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getUserBookings(2L, "PAST", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getUserBookings(2L, "PAST", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1343,12 +1794,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findAllFutureBookingsByUser(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getUserBookings(2L, "FUTURE", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getUserBookings(2L, "FUTURE", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1404,12 +1856,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findAllRejectedBookingsByUser(anyLong(), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getUserBookings(2L, "REJECTED", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getUserBookings(2L, "REJECTED", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1465,12 +1918,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(2L)).thenReturn(true);
         when(bookingRepository.findAllWaitingBookingsByUser(anyLong(), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getUserBookings(2L, "WAITING", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getUserBookings(2L, "WAITING", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1527,7 +1981,7 @@ class BookingServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(userCache.exists(2L)).thenReturn(true);
         // When
         // Then
         assertThatThrownBy(() -> underTest.getUserBookings(2L, "UNSUPPORTED_STATUS", 0, 2))
@@ -1585,7 +2039,7 @@ class BookingServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userCache.exists(2L)).thenReturn(false);
         // When
         // Then
         assertThatThrownBy(() -> underTest.getUserBookings(2L, "UNSUPPORTED_STATUS", 0, 2))
@@ -1642,12 +2096,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findAllItemsBookings(any(), any())).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getAllUserItemsBookings(itemOwner.getId(), "ALL", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getAllUserItemsBookings(itemOwner.getId(), "ALL", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1703,12 +2158,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findAllItemsCurrentBookings(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getAllUserItemsBookings(1L, "CURRENT", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getAllUserItemsBookings(1L, "CURRENT", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1764,12 +2220,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findAllItemsPastBookings(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getAllUserItemsBookings(1L, "PAST", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getAllUserItemsBookings(1L, "PAST", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1825,12 +2282,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findAllItemsFutureBookings(anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getAllUserItemsBookings(1L, "FUTURE", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getAllUserItemsBookings(1L, "FUTURE", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1886,12 +2344,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findAllItemsRejectedBookings(anyLong(), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getAllUserItemsBookings(1L, "REJECTED", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getAllUserItemsBookings(1L, "REJECTED", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -1947,12 +2406,13 @@ class BookingServiceImplTest {
                 .booker(booker)
                 .build();
 
-        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Booking> page = new PageImpl<Booking>(List.of(bookingFromDb1, bookingFromDb2), pageable, 2);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").descending());
+        Slice<BookingDtoShort> page = new SliceImpl<BookingDtoShort>(List.of(toShort(bookingFromDb1), toShort(bookingFromDb2)),
+                pageable, false);
+        when(userCache.exists(1L)).thenReturn(true);
         when(bookingRepository.findAllItemsWaitingBookings(anyLong(), any(Pageable.class))).thenReturn(page);
         // When
-        List<BookingDto> userBookings = underTest.getAllUserItemsBookings(1L, "WAITING", 0, 2);
+        List<BookingDtoShort> userBookings = underTest.getAllUserItemsBookings(1L, "WAITING", 0, 2);
         // Then
         assertThat(userBookings).hasSize(2);
         assertThat(userBookings.get(0).getId()).isEqualTo(bookingFromDb1.getId());
@@ -2009,7 +2469,7 @@ class BookingServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         // When
         // Then
         assertThatThrownBy(() -> underTest.getUserBookings(1L, "UNSUPPORTED_STATUS", 0, 2))
@@ -2067,11 +2527,16 @@ class BookingServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
         // When
         // Then
         assertThatThrownBy(() -> underTest.getUserBookings(1L, "ALL", 0, 2))
                 .isInstanceOf(UserNotFoundException.class)
                 .hasMessageContaining("User not found");
     }
-}
\ No newline at end of file
+
+    private BookingDtoShort toShort(Booking booking) {
+        return new BookingDtoShort(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItem().getId(), booking.getItem().getName(), booking.getBooker().getId());
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.BookingNotFoundException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingStatusHubTest {
+
+    private BookingStatusHub underTest;
+
+    @BeforeEach
+    void setUp() {
+        BookingEventProperties properties = new BookingEventProperties();
+        properties.setBufferSize(2);
+        underTest = new BookingStatusHub(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void itShouldKeepSubscribersPerBooking() {
+        // Given
+        // When
+        underTest.subscribe(1L, () -> BookingStatus.WAITING);
+        underTest.subscribe(1L, () -> BookingStatus.WAITING);
+        underTest.subscribe(2L, () -> BookingStatus.WAITING);
+        // Then
+        assertThat(underTest.countSubscribers(1L)).isEqualTo(2);
+        assertThat(underTest.countSubscribers(2L)).isEqualTo(1);
+        assertThat(underTest.countSubscribers(3L)).isZero();
+    }
+
+    @Test
+    void itShouldCloseSubscriptionAfterFinalStatus() throws InterruptedException {
+        // Given
+        underTest.subscribe(1L, () -> BookingStatus.WAITING);
+        // When
+        underTest.onBookingChanged(new BookingChangedEvent(1L, 1L, 1L, LocalDateTime.now(),
+                LocalDateTime.now().plusDays(1), BookingStatus.WAITING, BookingStatus.REJECTED));
+        // Then
+        long deadline = System.currentTimeMillis() + 5000;
+        while (underTest.countSubscribers(1L) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(underTest.countSubscribers(1L)).isZero();
+    }
+
+    @Test
+    void itShouldNotSubscribeWhenCurrentStatusIsNotAvailable() {
+        // Given
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.subscribe(1L, () -> {
+            throw new BookingNotFoundException("Booking not found");
+        })).isInstanceOf(BookingNotFoundException.class);
+        assertThat(underTest.countSubscribers(1L)).isZero();
+    }
+}
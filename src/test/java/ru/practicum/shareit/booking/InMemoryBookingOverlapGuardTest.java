@@ -0,0 +1,192 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ItemNotAvailableException;
+import ru.practicum.shareit.item.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryBookingOverlapGuardTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private InMemoryBookingOverlapGuard underTest;
+
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new InMemoryBookingOverlapGuard(bookingRepository);
+        item = Item.builder()
+                .id(1L)
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .build();
+    }
+
+    @Test
+    void itShouldDetectOverlapWithReservedBooking() {
+        // Given
+        underTest.reserve(booking(1L, NOON, NOON.plusHours(2)));
+        // When
+        // Then
+        assertThat(underTest.isFree(1L, NOON.plusHours(1), NOON.plusHours(3))).isFalse();
+        assertThat(underTest.isFree(1L, NOON.minusHours(1), NOON.plusMinutes(1))).isFalse();
+        assertThat(underTest.isFree(1L, NOON.plusMinutes(10), NOON.plusMinutes(20))).isFalse();
+        assertThat(underTest.isFree(1L, NOON.minusHours(1), NOON.plusHours(3))).isFalse();
+    }
+
+    @Test
+    void itShouldAllowAdjacentBookings() {
+        // Given
+        underTest.reserve(booking(1L, NOON, NOON.plusHours(2)));
+        // When
+        // Then
+        assertThat(underTest.isFree(1L, NOON.minusHours(1), NOON)).isTrue();
+        assertThat(underTest.isFree(1L, NOON.plusHours(2), NOON.plusHours(3))).isTrue();
+        assertThat(underTest.isFree(2L, NOON, NOON.plusHours(2))).isTrue();
+    }
+
+    @Test
+    void itShouldNotReserveOverlappingBooking() {
+        // Given
+        underTest.reserve(booking(1L, NOON, NOON.plusHours(2)));
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.reserve(booking(2L, NOON.plusHours(1), NOON.plusHours(3))))
+                .isInstanceOf(ItemNotAvailableException.class);
+    }
+
+    @Test
+    void itShouldDropFinishedSlots() {
+        // Given
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        underTest.reserve(booking(1L, yesterday, yesterday.plusHours(2)));
+        // When
+        underTest.prune();
+        // Then
+        assertThat(underTest.isFree(1L, yesterday, yesterday.plusHours(2))).isTrue();
+        underTest.reserve(booking(2L, yesterday.plusHours(1), yesterday.plusHours(3)));
+    }
+
+    @Test
+    void itShouldFreeSlotAfterRelease() {
+        // Given
+        Booking booking = booking(1L, NOON, NOON.plusHours(2));
+        underTest.reserve(booking);
+        // When
+        underTest.release(booking);
+        // Then
+        assertThat(underTest.isFree(1L, NOON, NOON.plusHours(2))).isTrue();
+    }
+
+    @Test
+    void itShouldFreeSlotWhenTransactionRollsBack() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            underTest.reserve(booking(1L, NOON, NOON.plusHours(2)));
+            // When
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // Then
+        assertThat(underTest.isFree(1L, NOON, NOON.plusHours(2))).isTrue();
+    }
+
+    @Test
+    void itShouldLoadApprovedBookings() {
+        // Given
+        when(bookingRepository.findAllApprovedEndingAfter(any())).thenReturn(List.of(entry(1L, NOON, NOON.plusHours(2))));
+        // When
+        underTest.load();
+        // Then
+        assertThat(underTest.isFree(1L, NOON.plusHours(1), NOON.plusHours(3))).isFalse();
+    }
+
+    @Test
+    void itShouldReserveOnlyOneOfConcurrentOverlappingBookings() throws Exception {
+        // Given
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<?>> futures = new CopyOnWriteArrayList<>();
+        // When
+        for (int i = 0; i < threads; i++) {
+            Booking booking = booking(i + 1, NOON.plusMinutes(i), NOON.plusHours(1).plusMinutes(i));
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    underTest.reserve(booking);
+                    reserved.incrementAndGet();
+                } catch (ItemNotAvailableException ignored) {
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        // Then
+        assertThat(reserved.get()).isEqualTo(1);
+    }
+
+    private Booking booking(long id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .item(item)
+                .build();
+    }
+
+    private ApprovedBookingEntry entry(long id, LocalDateTime start, LocalDateTime end) {
+        return new ApprovedBookingEntry() {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public long getItemId() {
+                return item.getId();
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
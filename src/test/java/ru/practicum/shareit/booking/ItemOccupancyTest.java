@@ -0,0 +1,124 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemOccupancyTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.now().plusYears(1).withNano(0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private ItemOccupancy underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ItemOccupancy(bookingRepository);
+    }
+
+    @Test
+    void itShouldMergeOverlappingAndTouchingBookings() {
+        // Given
+        underTest.onBookingChanged(event(1L, NOON, NOON.plusHours(2), BookingStatus.APPROVED));
+        underTest.onBookingChanged(event(2L, NOON.plusHours(1), NOON.plusHours(3), BookingStatus.WAITING));
+        underTest.onBookingChanged(event(3L, NOON.plusHours(3), NOON.plusHours(4), BookingStatus.WAITING));
+        underTest.onBookingChanged(event(4L, NOON.plusHours(6), NOON.plusHours(7), BookingStatus.APPROVED));
+        // When
+        List<TimeRange> busy = underTest.busy(1L, NOON.minusDays(1), NOON.plusDays(1));
+        // Then
+        assertThat(busy).containsExactly(
+                new TimeRange(NOON, NOON.plusHours(4)),
+                new TimeRange(NOON.plusHours(6), NOON.plusHours(7)));
+    }
+
+    @Test
+    void itShouldClipBookingsToRequestedRange() {
+        // Given
+        underTest.onBookingChanged(event(1L, NOON, NOON.plusDays(3), BookingStatus.APPROVED));
+        underTest.onBookingChanged(event(2L, NOON.plusDays(4), NOON.plusDays(5), BookingStatus.APPROVED));
+        // When
+        List<TimeRange> busy = underTest.busy(1L, NOON.plusDays(1), NOON.plusDays(2));
+        // Then
+        assertThat(busy).containsExactly(new TimeRange(NOON.plusDays(1), NOON.plusDays(2)));
+    }
+
+    @Test
+    void itShouldFreeSlotWhenBookingIsRejected() {
+        // Given
+        underTest.onBookingChanged(event(1L, NOON, NOON.plusHours(2), BookingStatus.WAITING));
+        // When
+        underTest.onBookingChanged(event(1L, NOON, NOON.plusHours(2), BookingStatus.REJECTED));
+        // Then
+        assertThat(underTest.busy(1L, NOON.minusDays(1), NOON.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void itShouldLoadActiveBookingsOnStartup() {
+        // Given
+        when(bookingRepository.findAllOccupyingEndingAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(entry(1L, 2L, NOON, NOON.plusHours(2))));
+        // When
+        underTest.load();
+        // Then
+        assertThat(underTest.busy(2L, NOON.minusDays(1), NOON.plusDays(1)))
+                .containsExactly(new TimeRange(NOON, NOON.plusHours(2)));
+        assertThat(underTest.busy(1L, NOON.minusDays(1), NOON.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void itShouldDropEndedBookings() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        underTest.onBookingChanged(event(1L, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED));
+        // When
+        List<TimeRange> busy = underTest.busy(1L, now.minusDays(3), now);
+        // Then
+        assertThat(busy).isEmpty();
+    }
+
+    private static BookingChangedEvent event(long bookingId, LocalDateTime start, LocalDateTime end,
+                                             BookingStatus status) {
+        return new BookingChangedEvent(bookingId, 1L, 1L, start, end, null, status);
+    }
+
+    private static BookingOccupancyEntry entry(long id, long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingOccupancyEntry() {
+            @Override
+            public BookingStatus getStatus() {
+                return BookingStatus.APPROVED;
+            }
+
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
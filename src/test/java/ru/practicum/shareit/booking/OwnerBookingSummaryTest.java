@@ -0,0 +1,208 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OwnerBookingSummaryTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OwnerBookingSummary underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new OwnerBookingSummary(bookingRepository, transactionManager);
+    }
+
+    @Test
+    void itShouldCountCreatedAndDecidedBookings() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        underTest.onBookingChanged(event(1L, now.plusDays(1), now.plusDays(2), null, BookingStatus.WAITING));
+        underTest.onBookingChanged(event(2L, now.plusDays(3), now.plusDays(4), null, BookingStatus.WAITING));
+        underTest.onBookingChanged(event(3L, now.plusDays(5), now.plusDays(6), null, BookingStatus.WAITING));
+        // When
+        underTest.onBookingChanged(event(1L, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING,
+                BookingStatus.APPROVED));
+        underTest.onBookingChanged(event(2L, now.plusDays(3), now.plusDays(4), BookingStatus.WAITING,
+                BookingStatus.REJECTED));
+        // Then
+        assertThat(underTest.get(1L)).contains(
+                entry(State.ALL, 3L),
+                entry(State.FUTURE, 3L),
+                entry(State.CURRENT, 0L),
+                entry(State.PAST, 0L),
+                entry(State.WAITING, 1L),
+                entry(State.REJECTED, 1L));
+        assertThat(underTest.get(2L)).containsEntry(State.ALL, 0L);
+    }
+
+    @Test
+    void itShouldMoveBookingsBetweenTimeStatesAsTheyStartAndEnd() throws InterruptedException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        underTest.onBookingChanged(event(1L, now.minusDays(2), now.minusDays(1), null, BookingStatus.APPROVED));
+        underTest.onBookingChanged(event(2L, now.minusDays(1), now.plusDays(1), null, BookingStatus.APPROVED));
+        underTest.onBookingChanged(event(3L, now.plusNanos(20_000_000), now.plusNanos(40_000_000), null,
+                BookingStatus.APPROVED));
+        // When
+        Thread.sleep(50);
+        Map<State, Long> summary = underTest.get(1L);
+        // Then
+        assertThat(summary).contains(
+                entry(State.PAST, 2L),
+                entry(State.CURRENT, 1L),
+                entry(State.FUTURE, 0L));
+    }
+
+    @Test
+    void itShouldRebuildCountersFromRepository() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        underTest.onBookingChanged(event(9L, now.plusDays(1), now.plusDays(2), null, BookingStatus.WAITING));
+        when(bookingRepository.countAllByOwner(any(LocalDateTime.class))).thenReturn(List.of(counts(1L, 1, 2, 5)));
+        when(bookingRepository.findAllOwnerEntriesEndingFrom(any(LocalDateTime.class)))
+                .thenReturn(List.of(ownerEntry(1L, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED),
+                        ownerEntry(2L, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED)));
+        // When
+        underTest.reconcile();
+        // Then
+        assertThat(underTest.get(1L)).contains(
+                entry(State.ALL, 7L),
+                entry(State.PAST, 5L),
+                entry(State.CURRENT, 1L),
+                entry(State.FUTURE, 1L),
+                entry(State.WAITING, 1L),
+                entry(State.REJECTED, 2L));
+    }
+
+    @Test
+    void itShouldNotCountTwiceEventsAlreadyInSnapshot() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = now.plusDays(3);
+        when(bookingRepository.countAllByOwner(any(LocalDateTime.class))).thenReturn(List.of(counts(1L, 0, 0, 0)));
+        when(bookingRepository.findAllOwnerEntriesEndingFrom(any(LocalDateTime.class))).thenAnswer(invocation -> {
+            underTest.onBookingChanged(event(2L, start, start.plusDays(1), null, BookingStatus.WAITING));
+            underTest.onBookingChanged(event(2L, start, start.plusDays(1), BookingStatus.WAITING,
+                    BookingStatus.APPROVED));
+            return List.of(ownerEntry(2L, start, start.plusDays(1), BookingStatus.APPROVED));
+        });
+        when(bookingRepository.findDecisionEntriesByIdIn(Set.of(2L)))
+                .thenReturn(List.of(ownerEntry(2L, start, start.plusDays(1), BookingStatus.APPROVED)));
+        // When
+        underTest.reconcile();
+        // Then
+        assertThat(underTest.get(1L)).contains(
+                entry(State.ALL, 1L),
+                entry(State.FUTURE, 1L),
+                entry(State.WAITING, 0L));
+    }
+
+    @Test
+    void itShouldReplayEventsCommittedAfterSnapshot() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = now.plusDays(3);
+        when(bookingRepository.countAllByOwner(any(LocalDateTime.class))).thenReturn(List.of(counts(1L, 1, 0, 0)));
+        when(bookingRepository.findAllOwnerEntriesEndingFrom(any(LocalDateTime.class))).thenAnswer(invocation -> {
+            underTest.onBookingChanged(event(2L, start, start.plusDays(1), BookingStatus.WAITING,
+                    BookingStatus.REJECTED));
+            underTest.onBookingChanged(event(3L, start, start.plusDays(1), null, BookingStatus.WAITING));
+            return List.of(ownerEntry(2L, start, start.plusDays(1), BookingStatus.WAITING));
+        });
+        when(bookingRepository.findDecisionEntriesByIdIn(Set.of(2L, 3L)))
+                .thenReturn(List.of(ownerEntry(2L, start, start.plusDays(1), BookingStatus.WAITING)));
+        // When
+        underTest.reconcile();
+        // Then
+        assertThat(underTest.get(1L)).contains(
+                entry(State.ALL, 2L),
+                entry(State.FUTURE, 2L),
+                entry(State.WAITING, 1L),
+                entry(State.REJECTED, 1L));
+    }
+
+    private static BookingChangedEvent event(long bookingId, LocalDateTime start, LocalDateTime end,
+                                             BookingStatus previousStatus, BookingStatus status) {
+        return new BookingChangedEvent(bookingId, 1L, 1L, start, end, previousStatus, status);
+    }
+
+    private static OwnerBookingCounts counts(long ownerId, long waiting, long rejected, long past) {
+        return new OwnerBookingCounts() {
+            @Override
+            public long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public long getWaiting() {
+                return waiting;
+            }
+
+            @Override
+            public long getRejected() {
+                return rejected;
+            }
+
+            @Override
+            public long getPast() {
+                return past;
+            }
+        };
+    }
+
+    private static BookingDecisionEntry ownerEntry(long bookingId, LocalDateTime start, LocalDateTime end,
+                                                   BookingStatus status) {
+        return new BookingDecisionEntry() {
+            @Override
+            public long getOwnerId() {
+                return 1L;
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getId() {
+                return bookingId;
+            }
+
+            @Override
+            public long getItemId() {
+                return 1L;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
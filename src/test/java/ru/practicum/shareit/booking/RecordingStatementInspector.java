@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> getStatements() {
+        synchronized (STATEMENTS) {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+
+    public static void clear() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+}
@@ -98,7 +98,7 @@ class CommentRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(comment))
+        assertThatThrownBy(() -> underTest.saveAndFlush(comment))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -129,7 +129,7 @@ class CommentRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(comment))
+        assertThatThrownBy(() -> underTest.saveAndFlush(comment))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -160,7 +160,7 @@ class CommentRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(comment))
+        assertThatThrownBy(() -> underTest.saveAndFlush(comment))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -191,7 +191,7 @@ class CommentRepositoryTest {
         itemRepository.save(item);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(comment))
+        assertThatThrownBy(() -> underTest.saveAndFlush(comment))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
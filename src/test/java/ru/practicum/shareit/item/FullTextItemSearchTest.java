@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FullTextItemSearchTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private FullTextItemSearch underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FullTextItemSearch(itemRepository);
+    }
+
+    @Test
+    void itShouldBuildPrefixTsQueryFromText() {
+        // Given
+        String text = "Аккумуляторная  ДРЕЛЬ, 18v!";
+        // When
+        String query = FullTextItemSearch.toTsQuery(text);
+        // Then
+        assertThat(query).isEqualTo("аккумуляторная:* & дрель:* & 18v:*");
+    }
+
+    @Test
+    void itShouldPassLimitAndOffsetToRepository() {
+        // Given
+        Item item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .isAvailable(true)
+                .build();
+        when(itemRepository.findAllByTsQuery("дрель:*", 10, 20L)).thenReturn(List.of(item));
+        // When
+        List<Item> found = underTest.search("дрель", PageRequest.of(2, 10));
+        // Then
+        assertThat(found).containsExactly(item);
+    }
+
+    @Test
+    void itShouldNotQueryRepositoryWhenTextHasNoWords() {
+        // Given
+        // When
+        List<Item> found = underTest.search(" ,.!", PageRequest.of(0, 10));
+        // Then
+        assertThat(found).isEmpty();
+        verify(itemRepository, never()).findAllByTsQuery(anyString(), anyInt(), anyLong());
+    }
+}
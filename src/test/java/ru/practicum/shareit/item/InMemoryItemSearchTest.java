@@ -0,0 +1,245 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.ItemOccupancy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemOccupancy itemOccupancy;
+
+    private InMemoryItemSearch underTest;
+
+    private Item drill;
+
+    private Item screwdriver;
+
+    private Item saw;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new InMemoryItemSearch(itemRepository, itemOccupancy);
+        drill = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .isAvailable(true)
+                .build();
+        screwdriver = Item.builder()
+                .id(2L)
+                .name("Отвертка")
+                .description("Аккумуляторная отвертка")
+                .isAvailable(true)
+                .build();
+        saw = Item.builder()
+                .id(3L)
+                .name("Пила")
+                .description("Ручная пила")
+                .isAvailable(false)
+                .build();
+    }
+
+    @Test
+    void itShouldBuildIndexFromRepository() {
+        // Given
+        when(itemRepository.findAllByIsAvailableTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(entry(drill), entry(screwdriver)));
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(screwdriver, drill));
+        // When
+        underTest.rebuild();
+        // Then
+        assertThat(underTest.search("аккУМУляторная", PageRequest.of(0, 10)))
+                .containsExactly(drill, screwdriver);
+    }
+
+    @Test
+    void itShouldKeepWritesMadeDuringRebuild() {
+        // Given
+        AtomicBoolean writerFinished = new AtomicBoolean();
+        when(itemRepository.findAllByIsAvailableTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Thread writer = new Thread(() -> {
+                        underTest.index(screwdriver);
+                        writerFinished.set(true);
+                    });
+                    writer.start();
+                    writer.join(5000);
+                    return List.of(entry(drill));
+                });
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(drill, screwdriver));
+        // When
+        underTest.rebuild();
+        // Then
+        assertThat(writerFinished).isTrue();
+        assertThat(underTest.search("аккумуляторная", PageRequest.of(0, 10)))
+                .containsExactly(drill, screwdriver);
+    }
+
+    @Test
+    void itShouldReplaceIncrementalChangesOnRebuild() {
+        // Given
+        underTest.index(Item.builder()
+                .id(3L)
+                .name("Пила")
+                .description("Ручная пила")
+                .isAvailable(true)
+                .build());
+        when(itemRepository.findAllByIsAvailableTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(entry(drill)));
+        // When
+        underTest.rebuild();
+        // Then
+        assertThat(underTest.search("пила", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void itShouldMatchWordPrefixesOfAllQueryWords() {
+        // Given
+        underTest.index(drill);
+        underTest.index(screwdriver);
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(drill));
+        // When
+        List<Item> found = underTest.search("акку дре", PageRequest.of(0, 10));
+        // Then
+        assertThat(found).containsExactly(drill);
+    }
+
+    @Test
+    void itShouldMatchShortQueryWordsOnlyExactly() {
+        // Given
+        underTest.index(drill);
+        // When
+        List<Item> found = underTest.search("др", PageRequest.of(0, 10));
+        // Then
+        assertThat(found).isEmpty();
+    }
+
+    @Test
+    void itShouldSkipItemsBookedForRequestedWindow() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+        underTest.index(drill);
+        underTest.index(screwdriver);
+        when(itemOccupancy.isFree(1L, start, end)).thenReturn(false);
+        when(itemOccupancy.isFree(2L, start, end)).thenReturn(true);
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(screwdriver));
+        // When
+        List<Item> found = underTest.searchFree("аккумуляторная", start, end, PageRequest.of(0, 10));
+        // Then
+        assertThat(found).containsExactly(screwdriver);
+    }
+
+    @Test
+    void itShouldSkipUnavailableItems() {
+        // Given
+        underTest.index(saw);
+        // When
+        List<Item> found = underTest.search("пила", PageRequest.of(0, 10));
+        // Then
+        assertThat(found).isEmpty();
+        verify(itemRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void itShouldReindexUpdatedItem() {
+        // Given
+        underTest.index(drill);
+        Item drillUpdated = Item.builder()
+                .id(1L)
+                .name("Перфоратор")
+                .description("Сетевой перфоратор")
+                .isAvailable(true)
+                .build();
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(drillUpdated));
+        // When
+        underTest.index(drillUpdated);
+        // Then
+        assertThat(underTest.search("дрель", PageRequest.of(0, 10))).isEmpty();
+        assertThat(underTest.search("перфоратор", PageRequest.of(0, 10))).containsExactly(drillUpdated);
+    }
+
+    @Test
+    void itShouldRemoveItemThatBecameUnavailable() {
+        // Given
+        underTest.index(drill);
+        underTest.index(screwdriver);
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(screwdriver));
+        // When
+        underTest.index(Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .isAvailable(false)
+                .build());
+        // Then
+        assertThat(underTest.search("аккумуляторная", PageRequest.of(0, 10))).containsExactly(screwdriver);
+        assertThat(underTest.search("дрель", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void itShouldReindexItemsByIds() {
+        // Given
+        underTest.index(drill);
+        when(itemRepository.findAllByIsAvailableTrueAndIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(entry(screwdriver)));
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(screwdriver));
+        // When
+        underTest.reindex(List.of(1L, 2L));
+        // Then
+        assertThat(underTest.search("аккумуляторная", PageRequest.of(0, 10))).containsExactly(screwdriver);
+        assertThat(underTest.search("дрель", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void itShouldPageResults() {
+        // Given
+        underTest.index(drill);
+        underTest.index(screwdriver);
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(screwdriver));
+        // When
+        List<Item> found = underTest.search("аккумуляторная", PageRequest.of(1, 1));
+        // Then
+        assertThat(found).containsExactly(screwdriver);
+        assertThat(underTest.search("аккумуляторная", PageRequest.of(2, 1))).isEmpty();
+    }
+
+    private ItemSearchEntry entry(Item item) {
+        return new ItemSearchEntry() {
+            @Override
+            public long getId() {
+                return item.getId();
+            }
+
+            @Override
+            public String getName() {
+                return item.getName();
+            }
+
+            @Override
+            public String getDescription() {
+                return item.getDescription();
+            }
+        };
+    }
+}
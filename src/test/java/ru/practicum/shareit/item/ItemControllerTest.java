@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.TimeRange;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -17,6 +18,8 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -31,6 +34,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemImportService itemImportService;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     @SneakyThrows
@@ -58,6 +64,28 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.description", is(itemDto.getDescription())));
     }
 
+    @SneakyThrows
+    @Test
+    void itShouldImportItemsFromNdjson() {
+        // Given
+        ItemImportResult result = new ItemImportResult();
+        result.imported(2);
+        String body = "{\"name\":\"Item1\",\"description\":\"d\",\"available\":true}\n" +
+                "{\"name\":\"Item2\",\"description\":\"d\",\"available\":true}\n";
+        // When
+        when(itemImportService.importItems(anyLong(), any())).thenReturn(result);
+        // Then
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-id", 1)
+                        .content(body)
+                        .contentType(ItemController.NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(0)));
+        verify(itemImportService, times(1)).importItems(anyLong(), any());
+    }
+
     @SneakyThrows
     @Test
     void itShouldNotCreateItemWhenNameNull() {
@@ -136,6 +164,30 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.description", is(itemDto.getDescription())));
     }
 
+    @SneakyThrows
+    @Test
+    void itShouldGetItemAvailability() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 5, 10, 0);
+        ItemAvailability availability = new ItemAvailability(1L, from, to,
+                List.of(new TimeRange(from.plusDays(1), from.plusDays(2))),
+                List.of(new TimeRange(from, from.plusDays(1)), new TimeRange(from.plusDays(2), to)));
+        // When
+        when(itemService.getAvailability(1L, 1L, from, to)).thenReturn(availability);
+        // Then
+        mockMvc.perform(get("/items/1/availability")
+                        .header("X-Sharer-User-id", 1)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-05T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1L), Long.class))
+                .andExpect(jsonPath("$.busy", hasSize(1)))
+                .andExpect(jsonPath("$.free", hasSize(2)))
+                .andExpect(jsonPath("$.busy[0].start", is("2030-01-02T10:00:00")));
+    }
+
     @SneakyThrows
     @Test
     void itShouldGetOwnerItems() {
@@ -183,7 +235,7 @@ class ItemControllerTest {
                 .available(true)
                 .build();
         // When
-        when(itemService.searchAvailableItems(1L, "item", 0, 10)).thenReturn(List.of(itemDto1, itemDto2));
+        when(itemService.searchAvailableItems(1L, "item", null, null, 0, 10)).thenReturn(List.of(itemDto1, itemDto2));
         // Then
         mockMvc.perform(get("/items/search?text=item")
                         .header("X-Sharer-User-id", 1))
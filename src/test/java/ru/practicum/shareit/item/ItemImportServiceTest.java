@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.validation.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles(profiles = {"ci,test"})
+@DataJpaTest(
+        properties = {
+                "spring.jpa.properties.javax.persistence.validation.mode=none"
+        }
+)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import(ItemImportService.class)
+@Transactional
+class ItemImportServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @MockBean
+    private ItemSearch itemSearch;
+
+    @Autowired
+    private ItemImportService underTest;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build());
+    }
+
+    @Test
+    void itShouldImportJsonArrayAndReportInvalidItems() {
+        // Given
+        String body = "[" +
+                "{\"name\":\"Drill\",\"description\":\"Cordless drill\",\"available\":true}," +
+                "{\"name\":\"\",\"description\":\"No name\",\"available\":true}," +
+                "{\"name\":\"Saw\",\"description\":\"Hand saw\",\"available\":false}" +
+                "]";
+
+        // When
+        ItemImportResult result = underTest.importItems(owner.getId(), stream(body));
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ItemImportResult.Error::getIndex).containsExactly(1);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("name ");
+        assertThat(itemRepository.findAll()).extracting(Item::getName).containsExactlyInAnyOrder("Drill", "Saw");
+    }
+
+    @Test
+    void itShouldImportNdjsonAcrossChunksAndResolveRequests() {
+        // Given
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                .description("Need a drill")
+                .requestor(owner)
+                .created(LocalDateTime.now())
+                .build());
+        int total = ItemImportService.CHUNK_SIZE + 10;
+        String body = IntStream.range(0, total)
+                .mapToObj(i -> "{\"name\":\"Item" + i + "\",\"description\":\"d\",\"available\":true," +
+                        "\"requestId\":" + (i % 2 == 0 ? request.getId() : 999_999) + "}")
+                .collect(Collectors.joining("\n"));
+
+        // When
+        ItemImportResult result = underTest.importItems(owner.getId(), stream(body));
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(total);
+        assertThat(itemRepository.findAllByRequestId(request.getId())).hasSize(total / 2);
+        assertThat(itemRepository.count()).isEqualTo(total);
+        verify(itemSearch, times(2)).reindex(anyCollection());
+    }
+
+    @Test
+    void itShouldRejectMalformedBody() {
+        // Given
+        String body = "[{\"name\":\"Drill\",\"description\":\"d\",\"available\":true}, 42]";
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.importItems(owner.getId(), stream(body)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Malformed import body at item 1");
+    }
+
+    @Test
+    void itShouldNotImportWhenUserNotFound() {
+        // Given
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.importItems(owner.getId() + 1000, stream("[]")))
+                .isInstanceOf(UserNotFoundException.class);
+        assertThat(itemRepository.findAll()).isEqualTo(List.of());
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -9,9 +9,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -27,6 +34,9 @@ public class ItemRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
     @Autowired
     private ItemRepository underTest;
 
@@ -85,7 +95,7 @@ public class ItemRepositoryTest {
         // When
 
         // Then
-        assertThatThrownBy(() -> underTest.save(item))
+        assertThatThrownBy(() -> underTest.saveAndFlush(item))
                 .isInstanceOf(DataIntegrityViolationException.class);
     }
 
@@ -109,7 +119,7 @@ public class ItemRepositoryTest {
         // When
 
         // Then
-        assertThatThrownBy(() -> underTest.save(item))
+        assertThatThrownBy(() -> underTest.saveAndFlush(item))
                 .isInstanceOf(DataIntegrityViolationException.class);
     }
 
@@ -128,7 +138,7 @@ public class ItemRepositoryTest {
         // When
 
         // Then
-        assertThatThrownBy(() -> underTest.save(item))
+        assertThatThrownBy(() -> underTest.saveAndFlush(item))
                 .isInstanceOf(DataIntegrityViolationException.class);
     }
 
@@ -414,4 +424,120 @@ public class ItemRepositoryTest {
                 .contains(item1, item2);
 
     }
+
+    @Test
+    void itShouldFindItemsByTextFreeForWindow() {
+        // Given
+        User owner = User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build();
+
+        User booker = User.builder()
+                .name("Username2")
+                .email("Useremail2@yandex.ru")
+                .build();
+
+        Item booked = Item.builder()
+                .name("Text")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build();
+
+        Item rejected = Item.builder()
+                .name("Item2")
+                .description("Text description")
+                .isAvailable(true)
+                .owner(owner)
+                .build();
+
+        Item bookedLater = Item.builder()
+                .name("Item3 text")
+                .description("Item3 description")
+                .isAvailable(true)
+                .owner(owner)
+                .build();
+
+        userRepository.save(owner);
+        userRepository.save(booker);
+        underTest.save(booked);
+        underTest.save(rejected);
+        underTest.save(bookedLater);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime end = start.plusDays(2);
+        bookingRepository.save(Booking.builder()
+                .start(start.minusHours(1))
+                .end(start.plusHours(1))
+                .item(booked)
+                .booker(booker)
+                .status(BookingStatus.WAITING)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(rejected)
+                .booker(booker)
+                .status(BookingStatus.REJECTED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .start(end)
+                .end(end.plusDays(1))
+                .item(bookedLater)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build());
+        // When
+        List<Item> found = underTest.findAllFreeByText("text", start, end,
+                EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED), PageRequest.of(0, 10)).getContent();
+        // Then
+        assertThat(found).containsExactlyInAnyOrder(rejected, bookedLater);
+    }
+
+    @Test
+    void itShouldFindAvailableSearchEntriesAfterId() {
+        // Given
+        User user = User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build();
+
+        Item item1 = Item.builder()
+                .name("Item1")
+                .description("Item1 description")
+                .isAvailable(true)
+                .owner(user)
+                .build();
+
+        Item item2 = Item.builder()
+                .name("Item2")
+                .description("Item2 description")
+                .isAvailable(false)
+                .owner(user)
+                .build();
+
+        Item item3 = Item.builder()
+                .name("Item3")
+                .description("Item3 description")
+                .isAvailable(true)
+                .owner(user)
+                .build();
+
+        userRepository.save(user);
+        underTest.save(item1);
+        underTest.save(item2);
+        underTest.save(item3);
+        // When
+        List<ItemSearchEntry> firstBatch = underTest.findAllByIsAvailableTrueAndIdGreaterThanOrderByIdAsc(0L,
+                PageRequest.of(0, 1));
+        List<ItemSearchEntry> secondBatch = underTest.findAllByIsAvailableTrueAndIdGreaterThanOrderByIdAsc(
+                firstBatch.get(0).getId(), PageRequest.of(0, 1));
+        // Then
+        assertThat(firstBatch).hasSize(1);
+        assertThat(firstBatch.get(0).getName()).isEqualTo("Item1");
+        assertThat(secondBatch).hasSize(1);
+        assertThat(secondBatch.get(0).getName()).isEqualTo("Item3");
+        assertThat(secondBatch.get(0).getDescription()).isEqualTo("Item3 description");
+    }
 }
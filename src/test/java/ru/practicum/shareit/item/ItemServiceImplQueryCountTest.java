@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemOccupancy;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles(profiles = {"ci,test"})
+@DataJpaTest(
+        properties = {
+                "spring.jpa.properties.javax.persistence.validation.mode=none",
+                "spring.jpa.properties.hibernate.generate_statistics=true"
+        }
+)
+@Import({ItemServiceImpl.class, DatabaseItemSearch.class, UserCache.class, ItemViewCache.class, ItemOccupancy.class})
+class ItemServiceImplQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ItemServiceImpl underTest;
+
+    private Statistics statistics;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = entityManager.persist(User.builder()
+                .name("Owner")
+                .email("owner@yandex.ru")
+                .build());
+        for (int i = 0; i < 20; i++) {
+            User booker = entityManager.persist(User.builder()
+                    .name("Booker" + i)
+                    .email("booker" + i + "@yandex.ru")
+                    .build());
+            Item item = entityManager.persist(Item.builder()
+                    .name("Item" + i)
+                    .description("Item" + i + " description")
+                    .isAvailable(true)
+                    .owner(owner)
+                    .build());
+            entityManager.persist(Comment.builder()
+                    .text("Comment" + i)
+                    .item(item)
+                    .user(booker)
+                    .created(LocalDateTime.now())
+                    .build());
+            entityManager.persist(Booking.builder()
+                    .start(LocalDateTime.now().minusDays(2))
+                    .end(LocalDateTime.now().minusDays(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.APPROVED)
+                    .build());
+            entityManager.persist(Booking.builder()
+                    .start(LocalDateTime.now().plusDays(1))
+                    .end(LocalDateTime.now().plusDays(2))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void itShouldIssueConstantNumberOfQueriesRegardlessOfPageSize() {
+        // Given
+        long smallPageQueries = countQueries(() -> underTest.getOwnerItems(owner.getId(), 0, 2));
+        // When
+        long largePageQueries = countQueries(() -> underTest.getOwnerItems(owner.getId(), 0, 20));
+        // Then
+        assertThat(largePageQueries).isEqualTo(smallPageQueries);
+    }
+
+    @Test
+    void itShouldNotCountOwnerItems() {
+        // Given
+        // When
+        long queries = countQueries(() -> underTest.getOwnerItems(owner.getId(), 0, 2));
+        // Then
+        assertThat(queries).isEqualTo(5);
+    }
+
+    @Test
+    void itShouldLoadCommentsAndBookingsForEveryItemOnPage() {
+        // Given
+        entityManager.clear();
+        // When
+        List<ItemDtoWithBookingsAndComments> ownerItems = underTest.getOwnerItems(owner.getId(), 0, 20);
+        // Then
+        assertThat(ownerItems).hasSize(20);
+        assertThat(ownerItems).allSatisfy(item -> {
+            assertThat(item.getComments()).hasSize(1);
+            assertThat(item.getLastBooking()).isNotNull();
+            assertThat(item.getNextBooking()).isNotNull();
+        });
+    }
+
+    private long countQueries(Runnable call) {
+        entityManager.clear();
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
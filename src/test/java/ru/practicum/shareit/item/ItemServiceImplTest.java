@@ -8,17 +8,23 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingHistory;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemOccupancy;
+import ru.practicum.shareit.booking.TimeRange;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +32,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +49,9 @@ class ItemServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
     @Mock
     private BookingRepository bookingRepository;
 
@@ -51,12 +61,19 @@ class ItemServiceImplTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
 
+    @Mock
+    private ItemSearch itemSearch;
+
+    @Mock
+    private ItemOccupancy itemOccupancy;
+
     @InjectMocks
     private ItemServiceImpl underTest;
 
     @BeforeEach
     void setUp() {
-        underTest = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository, itemRequestRepository);
+        underTest = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository, itemRequestRepository, itemSearch, userCache,
+                new ItemViewCache(new ConcurrentMapCacheManager()), itemOccupancy);
     }
 
     @Test
@@ -93,6 +110,7 @@ class ItemServiceImplTest {
         assertThat(itemCreated).isEqualToComparingFieldByField(itemToSave);
         assertThat(itemArgumentCaptor.getValue()).isEqualToComparingFieldByField(itemToBeSaved);
         verify(itemRepository, times(1)).save(any());
+        verify(itemSearch, times(1)).index(itemToBeSaved);
 
     }
 
@@ -168,6 +186,7 @@ class ItemServiceImplTest {
         assertThat(itemArgumentCaptor.getValue().getDescription()).isEqualTo("Item1UPD Description");
         assertThat(itemArgumentCaptor.getValue().getIsAvailable()).isEqualTo(false);
         assertThat(itemArgumentCaptor.getValue().getOwner()).isEqualTo(itemOwner);
+        verify(itemSearch, times(1)).index(itemUpdated);
 
     }
 
@@ -322,10 +341,13 @@ class ItemServiceImplTest {
                 .end(LocalDateTime.now().plusMinutes(15))
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(itemToReturn));
         when(commentRepository.findAllByItem(1L)).thenReturn(List.of(comment1, comment2));
-        when(bookingRepository.findAllBookingsByItemId(1L)).thenReturn(List.of(booking1, booking2));
+        when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(eq(1L), eq(BookingStatus.APPROVED),
+                any(LocalDateTime.class))).thenReturn(Optional.of(booking1));
+        when(bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(eq(1L), eq(BookingStatus.APPROVED),
+                any(LocalDateTime.class))).thenReturn(Optional.of(booking2));
         // When
         ItemDtoWithBookingsAndComments itemFound = underTest.getItemById(1L, 1L);
         // Then
@@ -404,7 +426,7 @@ class ItemServiceImplTest {
                 .end(LocalDateTime.now().plusMinutes(15))
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
 
         // When
         // Then
@@ -478,7 +500,7 @@ class ItemServiceImplTest {
                 .end(LocalDateTime.now().plusMinutes(15))
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.empty());
         // When
         // Then
@@ -535,7 +557,7 @@ class ItemServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(commentator2));
+        when(userCache.exists(2L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(itemToReturn));
         when(commentRepository.findAllByItem(1L)).thenReturn(List.of(comment1, comment2));
         // When
@@ -549,6 +571,109 @@ class ItemServiceImplTest {
 
     }
 
+    @Test
+    void itShouldServeRepeatedNonOwnerViewFromCache() {
+        // Given
+        User itemOwner = User.builder()
+                .id(1L)
+                .name("User1")
+                .email("Useremail@yandex.ru")
+                .build();
+
+        Item itemToReturn = Item.builder()
+                .id(1L)
+                .name("Item1")
+                .description("Item1 Description")
+                .isAvailable(true)
+                .owner(itemOwner)
+                .build();
+
+        when(userCache.exists(anyLong())).thenReturn(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(itemToReturn));
+        when(commentRepository.findAllByItem(1L)).thenReturn(List.of());
+        // When
+        underTest.getItemById(2L, 1L).setName("Changed");
+        ItemDtoWithBookingsAndComments itemFound = underTest.getItemById(3L, 1L);
+        // Then
+        assertThat(itemFound.getName()).isEqualTo(itemToReturn.getName());
+        assertThat(itemFound.getLastBooking()).isNull();
+        verify(itemRepository, times(1)).findById(1L);
+        verify(commentRepository, times(1)).findAllByItem(1L);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void itShouldComputeFreeIntervalsBetweenBusyOnes() {
+        // Given
+        User itemOwner = User.builder()
+                .id(1L)
+                .name("User1")
+                .email("Useremail@yandex.ru")
+                .build();
+
+        Item itemToReturn = Item.builder()
+                .id(1L)
+                .name("Item1")
+                .description("Item1 Description")
+                .isAvailable(true)
+                .owner(itemOwner)
+                .build();
+
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(10);
+        TimeRange busy = new TimeRange(from.plusDays(2), from.plusDays(4));
+
+        when(userCache.exists(2L)).thenReturn(true);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(itemOccupancy.busy(1L, from, to)).thenReturn(List.of(busy));
+        // When
+        ItemAvailability availability = underTest.getAvailability(2L, 1L, from, to);
+        // Then
+        assertThat(availability.getBusy()).containsExactly(busy);
+        assertThat(availability.getFree()).containsExactly(
+                new TimeRange(from, busy.getStart()),
+                new TimeRange(busy.getEnd(), to));
+        verify(itemRepository, never()).findById(anyLong());
+        verifyNoInteractions(bookingRepository, commentRepository);
+    }
+
+    @Test
+    void itShouldNotGetAvailabilityWhenRangeIsEmpty() {
+        // Given
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        when(userCache.exists(2L)).thenReturn(true);
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getAvailability(2L, 1L, from, from))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(itemOccupancy);
+    }
+
+    @Test
+    void itShouldNotGetAvailabilityWhenRangeIsInPast() {
+        // Given
+        LocalDateTime to = LocalDateTime.now().minusDays(1);
+        when(userCache.exists(2L)).thenReturn(true);
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getAvailability(2L, 1L, to.minusDays(1), to))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(itemOccupancy);
+    }
+
+    @Test
+    void itShouldNotGetAvailabilityWhenItemNotFound() {
+        // Given
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        when(userCache.exists(2L)).thenReturn(true);
+        when(itemRepository.existsById(1L)).thenReturn(false);
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getAvailability(2L, 1L, from, from.plusDays(1)))
+                .isInstanceOf(ItemNotFoundException.class);
+        verifyNoInteractions(itemOccupancy);
+    }
+
     @Test
     void itShouldGetOwnerItems() {
         // Given
@@ -621,15 +746,16 @@ class ItemServiceImplTest {
                 .build();
 
         Pageable pageable = PageRequest.of(0, 1, Sort.by("id").ascending());
-        Page<Item> page = new PageImpl<Item>(List.of(itemToReturn1, itemToReturn2), pageable, 2);
+        Slice<Item> page = new SliceImpl<Item>(List.of(itemToReturn1, itemToReturn2), pageable, false);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         //when(itemRepository.findAllByOwnerIdOrderByIdAsc(1L, PageRequest.of(0,1))).thenReturn(List.of(itemToReturn1, itemToReturn2));
         when(itemRepository.findAllByOwnerIdOrderByIdAsc(1L, pageable)).thenReturn(page);
-        when(commentRepository.findAllByItem(1L)).thenReturn(List.of(comment1));
-        when(commentRepository.findAllByItem(2L)).thenReturn(List.of(comment2));
-        when(bookingRepository.findAllBookingsByItemId(1L)).thenReturn(List.of(booking1));
-        when(bookingRepository.findAllBookingsByItemId(2L)).thenReturn(List.of(booking2));
+        when(commentRepository.findAllByItemIdIn(List.of(1L, 2L))).thenReturn(List.of(comment1, comment2));
+        when(bookingRepository.findLastBookingsByItemIdIn(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking1));
+        when(bookingRepository.findNextBookingsByItemIdIn(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking2));
         // When
         List<ItemDtoWithBookingsAndComments> ownerItems = underTest.getOwnerItems(1L, 0, 1);
         // Then
@@ -714,7 +840,7 @@ class ItemServiceImplTest {
                 .end(LocalDateTime.now().plusMinutes(15))
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
         // When
         // Then
         assertThatThrownBy(() -> underTest.getOwnerItems(1L, 0, 1))
@@ -762,18 +888,61 @@ class ItemServiceImplTest {
                 .build();
 
         Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
-        Page<Item> page = new PageImpl<Item>(List.of(item2, item3), pageable, 2);
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
-        when(itemRepository.findAllByText("text", pageable)).thenReturn(page);
+        when(userCache.exists(2L)).thenReturn(true);
+        when(itemSearch.search("text", pageable)).thenReturn(List.of(item2, item3));
         // When
-        List<ItemDto> availableItems = underTest.searchAvailableItems(2L, "text", 0, 2);
+        List<ItemDto> availableItems = underTest.searchAvailableItems(2L, "text", null, null, 0, 2);
         // Then
         assertThat(availableItems).hasSize(2);
         assertThat(availableItems.get(0).getId()).isEqualTo(item2.getId());
         assertThat(availableItems.get(1).getId()).isEqualTo(item3.getId());
     }
 
+    @Test
+    void itShouldSearchOnlyFreeItemsWhenWindowGiven() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(1);
+        Item item = Item.builder()
+                .id(1L)
+                .name("Text")
+                .description("Item1 description")
+                .isAvailable(true)
+                .build();
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
+        when(userCache.exists(2L)).thenReturn(true);
+        when(itemSearch.searchFree("text", start, end, pageable)).thenReturn(List.of(item));
+        // When
+        List<ItemDto> availableItems = underTest.searchAvailableItems(2L, "text", start, end, 0, 2);
+        // Then
+        assertThat(availableItems).hasSize(1);
+        verify(itemSearch, never()).search(any(), any());
+    }
+
+    @Test
+    void itShouldNotSearchWithHalfOpenWindow() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.searchAvailableItems(2L, "text", start, null, 0, 2))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(itemSearch);
+    }
+
+    @Test
+    void itShouldNotSearchFreeItemsInPastWindow() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().minusDays(2);
+        LocalDateTime end = start.plusDays(1);
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.searchAvailableItems(2L, "text", start, end, 0, 2))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(itemSearch);
+    }
+
     @Test
     void itShouldAddComment() {
         // Given
@@ -807,19 +976,10 @@ class ItemServiceImplTest {
                 .created(LocalDateTime.now())
                 .build();
 
-        Booking booking1 = Booking.builder()
-                .id(1L)
-                .item(item)
-                .booker(commentator1)
-                .status(BookingStatus.APPROVED)
-                .start(LocalDateTime.now().minusMinutes(30))
-                .end(LocalDateTime.now().minusMinutes(10))
-                .build();
-
         when(userRepository.findById(2L)).thenReturn(Optional.of(commentator1));
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(bookingRepository.findAllByBookerIdAndItemIdAndEndBefore(any(Long.class), any(Long.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(booking1));
+                .thenReturn(List.of(mock(BookingHistory.class)));
         when(commentRepository.save(any())).thenReturn(comment1);
         // When
         CommentDtoToReturn commentDtoToReturn = underTest.addComment(2L, 1L, commentToCreate);
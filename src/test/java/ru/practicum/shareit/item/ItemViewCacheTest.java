@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.practicum.shareit.booking.BookingDtoForItemHost;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemViewCacheTest {
+
+    private final ItemViewCache underTest = new ItemViewCache(
+            new ConcurrentMapCacheManager(ItemViewCache.ITEMS, ItemViewCache.ITEM_BOOKINGS));
+
+    @Test
+    void itShouldLoadViewOnceUntilEvicted() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        ItemViewCache.ItemView view = new ItemViewCache.ItemView(1L, ItemDtoWithBookingsAndComments.builder()
+                .id(1L)
+                .name("Item1")
+                .comments(List.of())
+                .build());
+
+        // When
+        underTest.getView(1L, () -> {
+            loads.incrementAndGet();
+            return view;
+        });
+        ItemViewCache.ItemView cached = underTest.getView(1L, () -> {
+            loads.incrementAndGet();
+            return view;
+        });
+        underTest.evictView(1L);
+        underTest.getView(1L, () -> {
+            loads.incrementAndGet();
+            return view;
+        });
+
+        // Then
+        assertThat(cached).isSameAs(view);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void itShouldRethrowLoaderException() {
+        // Given
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.getView(1L, () -> {
+            throw new ItemNotFoundException("Item not found");
+        })).isInstanceOf(ItemNotFoundException.class);
+    }
+
+    @Test
+    void itShouldReloadOwnerBookingsAtNextBookingStart() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        AtomicInteger loads = new AtomicInteger();
+        BookingDtoForItemHost next = BookingDtoForItemHost.builder()
+                .id(1L)
+                .start(now.plusHours(1))
+                .end(now.plusHours(2))
+                .build();
+        ItemViewCache.OwnerBookings bookings = new ItemViewCache.OwnerBookings(null, next);
+
+        // When
+        underTest.getBookings(1L, now, () -> {
+            loads.incrementAndGet();
+            return bookings;
+        });
+        underTest.getBookings(1L, now.plusMinutes(59), () -> {
+            loads.incrementAndGet();
+            return bookings;
+        });
+        int loadsBeforeBoundary = loads.get();
+        underTest.getBookings(1L, now.plusHours(1), () -> {
+            loads.incrementAndGet();
+            return new ItemViewCache.OwnerBookings(next, null);
+        });
+
+        // Then
+        assertThat(loadsBeforeBoundary).isEqualTo(1);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void itShouldEvictOwnerBookings() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        LocalDateTime now = LocalDateTime.now();
+        underTest.getBookings(1L, now, () -> {
+            loads.incrementAndGet();
+            return new ItemViewCache.OwnerBookings(null, null);
+        });
+
+        // When
+        underTest.evictBookings(1L);
+        underTest.getBookings(1L, now, () -> {
+            loads.incrementAndGet();
+            return new ItemViewCache.OwnerBookings(null, null);
+        });
+
+        // Then
+        assertThat(loads).hasValue(2);
+    }
+}
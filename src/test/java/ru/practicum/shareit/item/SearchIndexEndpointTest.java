@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexEndpointTest {
+
+    @Mock
+    private ItemService itemService;
+
+    private SearchIndexEndpoint underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new SearchIndexEndpoint(itemService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void itShouldRebuildIndexInBackgroundOnlyOnceAtATime() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(itemService).rebuildSearchIndex();
+        // When
+        String first = underTest.rebuild().get(SearchIndexEndpoint.STATUS);
+        String second = underTest.rebuild().get(SearchIndexEndpoint.STATUS);
+        String during = underTest.status().get(SearchIndexEndpoint.STATUS);
+        release.countDown();
+        // Then
+        assertThat(first).isEqualTo("started");
+        assertThat(second).isEqualTo("running");
+        assertThat(during).isEqualTo("running");
+        verify(itemService, timeout(5000).times(1)).rebuildSearchIndex();
+    }
+}
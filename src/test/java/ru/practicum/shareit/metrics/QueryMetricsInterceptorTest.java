@@ -0,0 +1,58 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles(profiles = {"ci,test"})
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryMetricsInterceptorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SneakyThrows
+    @Test
+    void itShouldRecordStatementsAndEntitiesPerEndpoint() {
+        // Given
+        String body = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Metrics\",\"email\":\"metrics@yandex.ru\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long userId = Long.parseLong(body.replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        // When
+        mockMvc.perform(get("/users/{userId}", userId))
+                .andExpect(status().isOk());
+
+        // Then
+        DistributionSummary statements = meterRegistry.get(QueryMetricsInterceptor.STATEMENTS_METRIC)
+                .tag("method", "GET")
+                .tag("uri", "/users/{userId}")
+                .summary();
+        DistributionSummary entities = meterRegistry.get(QueryMetricsInterceptor.ENTITIES_METRIC)
+                .tag("method", "GET")
+                .tag("uri", "/users/{userId}")
+                .summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(1);
+        assertThat(entities.totalAmount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryListenerTest {
+
+    private static final String SQL = "select * from bookings where booker_id = ?";
+
+    @Test
+    void itShouldLogQuerySlowerThanThreshold(CapturedOutput output) {
+        // Given
+        SlowQueryListener underTest = new SlowQueryListener(properties(0.0));
+
+        // When
+        underTest.afterQuery(executionInfo(250), List.of(new QueryInfo(SQL)));
+
+        // Then
+        assertThat(output).contains("WARN", " 250 ", SQL);
+    }
+
+    @Test
+    void itShouldNotLogFastQueryWithoutSampling(CapturedOutput output) {
+        // Given
+        SlowQueryListener underTest = new SlowQueryListener(properties(0.0));
+
+        // When
+        underTest.afterQuery(executionInfo(5), List.of(new QueryInfo(SQL)));
+
+        // Then
+        assertThat(output).doesNotContain(SQL);
+    }
+
+    @Test
+    void itShouldLogSampledFastQuery(CapturedOutput output) {
+        // Given
+        SlowQueryListener underTest = new SlowQueryListener(properties(1.0));
+
+        // When
+        underTest.afterQuery(executionInfo(5), List.of(new QueryInfo(SQL)));
+
+        // Then
+        assertThat(output).contains("INFO", " 5 ", SQL).doesNotContain("WARN");
+    }
+
+    private SlowQueryProperties properties(double sampleRate) {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setThreshold(Duration.ofMillis(100));
+        properties.setSampleRate(sampleRate);
+        return properties;
+    }
+
+    private ExecutionInfo executionInfo(long elapsed) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsed);
+        return executionInfo;
+    }
+}
@@ -3,9 +3,9 @@ package ru.practicum.shareit.request;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.ItemRepository;
@@ -124,7 +124,7 @@ class ItemRequestRepositoryTest {
 
         // When
         Pageable pageable = PageRequest.of(0, 2);
-        Page<ItemRequest> itemRequests = underTest.findAllUserRequest(user1.getId(), pageable);
+        Slice<ItemRequest> itemRequests = underTest.findAllUserRequest(user1.getId(), pageable);
         // Then
         List<ItemRequest> itemRequestList = itemRequests.getContent();
         assertThat(itemRequestList)
@@ -16,6 +16,7 @@ import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
@@ -41,6 +42,9 @@ class ItemRequestServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
     @Mock
     private ItemRequestRepository itemRequestRepository;
 
@@ -50,7 +54,7 @@ class ItemRequestServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        underTest = new ItemRequestServiceImpl(itemRequestRepository, itemRepository, userRepository);
+        underTest = new ItemRequestServiceImpl(itemRequestRepository, itemRepository, userRepository, userCache);
     }
 
     @Test
@@ -160,7 +164,7 @@ class ItemRequestServiceImplTest {
                 .request(itemRequest2)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(requestor));
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRequestRepository.findAllByRequestorIdOrderByCreatedAsc(1L)).thenReturn(List.of(itemRequest1, itemRequest2));
        when(itemRepository.findAllByRequestIdIn(anyList())).thenReturn(List.of(item1, item2));
         // When
@@ -221,7 +225,7 @@ class ItemRequestServiceImplTest {
                 .request(itemRequest2)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
 
         // When
         // Then
@@ -290,8 +294,8 @@ class ItemRequestServiceImplTest {
                 .build();
 
         Pageable pageable = PageRequest.of(0, 2, Sort.by("created").ascending());
-        Page<ItemRequest> page = new PageImpl<ItemRequest>(List.of(itemRequest1, itemRequest2), pageable, 2);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        Slice<ItemRequest> page = new SliceImpl<ItemRequest>(List.of(itemRequest1, itemRequest2), pageable, false);
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRequestRepository.findAllUserRequest(1L, pageable)).thenReturn(page);
         when(itemRepository.findAllByRequestIdIn(anyList())).thenReturn(List.of(item1, item2));
         // When
@@ -345,7 +349,7 @@ class ItemRequestServiceImplTest {
                 .requestor(requestor2)
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
 
         // When
         // Then
@@ -389,7 +393,7 @@ class ItemRequestServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(itemRequest1));
         when(itemRepository.findAllByRequestId(1L)).thenReturn(List.of(item1));
         // When
@@ -436,7 +440,7 @@ class ItemRequestServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
         // When
         // Then
         assertThatThrownBy(() -> underTest.getRequestById(1L, 1L))
@@ -479,7 +483,7 @@ class ItemRequestServiceImplTest {
                 .build();
 
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(itemOwner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRequestRepository.findById(1L)).thenReturn(Optional.empty());
         // When
         // Then
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.seed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles(profiles = {"ci,test"})
+@DataJpaTest(
+        properties = {
+                "spring.jpa.properties.javax.persistence.validation.mode=none"
+        }
+)
+@Import(DataGenerator.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DataGeneratorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataGenerator underTest;
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("comments", "bookings", "items", "requests", "users")) {
+            jdbcTemplate.update("delete from " + table);
+        }
+    }
+
+    @Test
+    void itShouldInsertConfiguredVolumes() {
+        // Given
+        SeedProperties properties = properties();
+
+        // When
+        underTest.generate(properties);
+
+        // Then
+        assertThat(count("users")).isEqualTo(200);
+        assertThat(count("requests")).isEqualTo(50);
+        assertThat(count("items")).isEqualTo(400);
+        assertThat(count("bookings")).isEqualTo(3000);
+        assertThat(count("comments")).isPositive();
+    }
+
+    @Test
+    void itShouldNotOverlapApprovedBookingsOfSameItem() {
+        // Given
+        SeedProperties properties = properties();
+
+        // When
+        underTest.generate(properties);
+
+        // Then
+        Long overlaps = jdbcTemplate.queryForObject("select count(*) from bookings a join bookings b " +
+                "on a.item_id = b.item_id and a.id < b.id " +
+                "where a.status = 'APPROVED' and b.status = 'APPROVED' " +
+                "and a.start_date < b.end_date and b.start_date < a.end_date", Long.class);
+        assertThat(overlaps).isZero();
+        Long ownBookings = jdbcTemplate.queryForObject("select count(*) from bookings b " +
+                "join items i on i.id = b.item_id where i.owner_id = b.booker_id", Long.class);
+        assertThat(ownBookings).isZero();
+    }
+
+    @Test
+    void itShouldSkewItemsTowardsFewOwners() {
+        // Given
+        SeedProperties properties = properties();
+
+        // When
+        underTest.generate(properties);
+
+        // Then
+        Long topOwnerItems = jdbcTemplate.queryForObject("select max(c) from " +
+                "(select count(*) as c from items group by owner_id) as counts", Long.class);
+        assertThat(topOwnerItems).isGreaterThan(20L);
+    }
+
+    @Test
+    void itShouldBeDeterministicForSameSeed() {
+        // Given
+        SeedProperties properties = properties();
+        underTest.generate(properties);
+        List<String> first = snapshot();
+        tearDown();
+
+        // When
+        underTest.generate(properties);
+
+        // Then
+        assertThat(snapshot()).isEqualTo(first);
+    }
+
+    @Test
+    void itShouldContinueIdentityAfterSeeding() {
+        // Given
+        underTest.generate(properties());
+
+        // When
+        User saved = userRepository.save(User.builder()
+                .name("Username")
+                .email("Useremail@yandex.ru")
+                .build());
+
+        // Then
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from users", Long.class);
+        assertThat(saved.getId()).isEqualTo(maxId);
+    }
+
+    private SeedProperties properties() {
+        SeedProperties properties = new SeedProperties();
+        properties.setUsers(200);
+        properties.setRequests(50);
+        properties.setItems(400);
+        properties.setBookings(3000);
+        properties.setBatchSize(250);
+        return properties;
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+
+    private List<String> snapshot() {
+        return jdbcTemplate.queryForList("select concat(item_id - (select min(id) from items), ':', " +
+                "booker_id - (select min(id) from users), ':', status) from bookings order by id", String.class);
+    }
+}
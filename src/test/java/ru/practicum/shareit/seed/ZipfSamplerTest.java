@@ -0,0 +1,54 @@
+package ru.practicum.shareit.seed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZipfSamplerTest {
+
+    private final ZipfSampler underTest = new ZipfSampler(1000, 1.2);
+
+    @Test
+    void itShouldReturnSameSequenceForSameSeed() {
+        // Given
+        Random first = new Random(7);
+        Random second = new Random(7);
+
+        // When
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(underTest.next(first)).isEqualTo(underTest.next(second));
+        }
+    }
+
+    @Test
+    void itShouldFavourLowRanks() {
+        // Given
+        Random random = new Random(42);
+        int[] hits = new int[1000];
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            hits[underTest.next(random)]++;
+        }
+
+        // Then
+        assertThat(hits[0]).isGreaterThan(hits[9] * 10);
+        assertThat(hits[0]).isGreaterThan(100_000 / 10);
+    }
+
+    @Test
+    void itShouldStayWithinBounds() {
+        // Given
+        ZipfSampler sampler = new ZipfSampler(3, 0.5);
+        Random random = new Random(1);
+
+        // When
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(sampler.next(random)).isBetween(0, 2);
+        }
+    }
+}
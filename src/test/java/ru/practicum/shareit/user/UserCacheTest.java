@@ -0,0 +1,89 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class UserCacheTest {
+
+    @Autowired
+    private UserCache underTest;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    void itShouldCacheExistingUser() {
+        // Given
+        when(userRepository.existsById(1L)).thenReturn(true);
+        // When
+        underTest.exists(1L);
+        boolean exists = underTest.exists(1L);
+        // Then
+        assertThat(exists).isTrue();
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void itShouldNotCacheMissingUser() {
+        // Given
+        when(userRepository.existsById(2L)).thenReturn(false);
+        // When
+        underTest.exists(2L);
+        boolean exists = underTest.exists(2L);
+        // Then
+        assertThat(exists).isFalse();
+        verify(userRepository, times(2)).existsById(2L);
+    }
+
+    @Test
+    void itShouldCheckUserAgainAfterEviction() {
+        // Given
+        when(userRepository.existsById(3L)).thenReturn(true, false);
+        underTest.exists(3L);
+        // When
+        underTest.evict(3L);
+        boolean exists = underTest.exists(3L);
+        // Then
+        assertThat(exists).isFalse();
+        verify(userRepository, times(2)).existsById(3L);
+    }
+
+    @Test
+    void itShouldCheckAllUsersAgainAfterEvictAll() {
+        // Given
+        when(userRepository.existsById(4L)).thenReturn(true);
+        when(userRepository.existsById(5L)).thenReturn(true);
+        underTest.exists(4L);
+        underTest.exists(5L);
+        // When
+        underTest.evictAll();
+        underTest.exists(4L);
+        underTest.exists(5L);
+        // Then
+        verify(userRepository, times(2)).existsById(4L);
+        verify(userRepository, times(2)).existsById(5L);
+    }
+
+    @Configuration
+    @EnableCaching
+    @Import(UserCache.class)
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(UserCache.USERS);
+        }
+    }
+}
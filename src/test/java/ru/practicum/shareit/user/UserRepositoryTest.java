@@ -58,7 +58,7 @@ public class UserRepositoryTest {
 
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(user))
+        assertThatThrownBy(() -> underTest.saveAndFlush(user))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -73,7 +73,7 @@ public class UserRepositoryTest {
 
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(user))
+        assertThatThrownBy(() -> underTest.saveAndFlush(user))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
@@ -94,7 +94,7 @@ public class UserRepositoryTest {
         underTest.save(user1);
         // When
         // Then
-        assertThatThrownBy(() -> underTest.save(user2))
+        assertThatThrownBy(() -> underTest.saveAndFlush(user2))
                 .isInstanceOf(DataIntegrityViolationException.class);
 
     }
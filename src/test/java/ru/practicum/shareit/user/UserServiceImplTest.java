@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.ItemViewCache;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,13 +26,19 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private ItemViewCache itemViewCache;
+
     @InjectMocks
     private UserServiceImpl underTest;
 
 
     @BeforeEach
     void setUp() {
-        underTest = new UserServiceImpl(userRepository);
+        underTest = new UserServiceImpl(userRepository, userCache, itemViewCache);
     }
 
     @Test
@@ -123,6 +130,7 @@ class UserServiceImplTest {
         assertThat(userUpdatedFromDb.getId()).isEqualTo(1L);
         assertThat(userUpdatedFromDb.getName()).isEqualTo("Username");
         assertThat(userUpdatedFromDb.getEmail()).isEqualTo("UseremailUPD@yandex.ru");
+        verify(userCache, times(1)).evict(1L);
     }
 
     @Test
@@ -229,6 +237,7 @@ class UserServiceImplTest {
         underTest.deleteUserById(1L);
         // Then
         verify(userRepository, times(1)).deleteById(1L);
+        verify(userCache, times(1)).evict(1L);
     }
 
     @Test
@@ -238,6 +247,7 @@ class UserServiceImplTest {
         underTest.deleteUsers();
         // Then
         verify(userRepository, times(1)).deleteAll();
+        verify(userCache, times(1)).evictAll();
     }
 
     private UserDto makeUserDto(String name, String email) {